@@ -0,0 +1,174 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+/**
+ * An <code>Aggregate</code> specifies an additional column to compute when
+ * grouping an {@link org.jqurantree.analysis.AnalysisTable}, such as the sum
+ * or average of a column over the rows of each group. For example:
+ * <p>
+ * <code>table.group(new String[] { "ChapterNumber" },
+ * Aggregate.sum("TokenCount"), Aggregate.max("TokenCount"));</code>
+ * <p>
+ * Unless a name is specified, the new column is named after the aggregate type
+ * and the column, e.g. <i>SumTokenCount</i>.
+ * 
+ * @author Kais Dukes
+ */
+public class Aggregate {
+
+	private final AggregateType type;
+	private final String columnName;
+	private final String name;
+
+	/**
+	 * Creates a new aggregate.
+	 * 
+	 * @param type
+	 *            the aggregate function
+	 * 
+	 * @param columnName
+	 *            the name of the column to aggregate
+	 * 
+	 * @param name
+	 *            the name of the new column in the grouped table
+	 */
+	public Aggregate(AggregateType type, String columnName, String name) {
+		this.type = type;
+		this.columnName = columnName;
+		this.name = name;
+	}
+
+	/**
+	 * Creates an aggregate for the sum of a column.
+	 * 
+	 * @param columnName
+	 *            the name of the column to aggregate
+	 * 
+	 * @return the aggregate
+	 */
+	public static Aggregate sum(String columnName) {
+		return create(AggregateType.Sum, columnName);
+	}
+
+	/**
+	 * Creates an aggregate for the smallest value of a column.
+	 * 
+	 * @param columnName
+	 *            the name of the column to aggregate
+	 * 
+	 * @return the aggregate
+	 */
+	public static Aggregate min(String columnName) {
+		return create(AggregateType.Min, columnName);
+	}
+
+	/**
+	 * Creates an aggregate for the largest value of a column.
+	 * 
+	 * @param columnName
+	 *            the name of the column to aggregate
+	 * 
+	 * @return the aggregate
+	 */
+	public static Aggregate max(String columnName) {
+		return create(AggregateType.Max, columnName);
+	}
+
+	/**
+	 * Creates an aggregate for the mean of a column.
+	 * 
+	 * @param columnName
+	 *            the name of the column to aggregate
+	 * 
+	 * @return the aggregate
+	 */
+	public static Aggregate average(String columnName) {
+		return create(AggregateType.Average, columnName);
+	}
+
+	/**
+	 * Creates an aggregate for the number of distinct values in a column.
+	 * 
+	 * @param columnName
+	 *            the name of the column to aggregate
+	 * 
+	 * @return the aggregate
+	 */
+	public static Aggregate countDistinct(String columnName) {
+		return create(AggregateType.CountDistinct, columnName);
+	}
+
+	/**
+	 * Creates an aggregate for the value of a column in the first row of each
+	 * group.
+	 * 
+	 * @param columnName
+	 *            the name of the column to aggregate
+	 * 
+	 * @return the aggregate
+	 */
+	public static Aggregate first(String columnName) {
+		return create(AggregateType.First, columnName);
+	}
+
+	/**
+	 * Creates an aggregate for the value of a column in the last row of each
+	 * group.
+	 * 
+	 * @param columnName
+	 *            the name of the column to aggregate
+	 * 
+	 * @return the aggregate
+	 */
+	public static Aggregate last(String columnName) {
+		return create(AggregateType.Last, columnName);
+	}
+
+	/**
+	 * Gets the aggregate function.
+	 * 
+	 * @return the aggregate type
+	 */
+	public AggregateType getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the name of the column to aggregate.
+	 * 
+	 * @return the column name
+	 */
+	public String getColumnName() {
+		return columnName;
+	}
+
+	/**
+	 * Gets the name of the new column in the grouped table.
+	 * 
+	 * @return the name of the aggregate column
+	 */
+	public String getName() {
+		return name;
+	}
+
+	private static Aggregate create(AggregateType type, String columnName) {
+		return new Aggregate(type, columnName, type.name() + columnName);
+	}
+}
@@ -0,0 +1,64 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+/**
+ * The <code>AggregateType</code> enumeration specifies the function used by an
+ * {@link org.jqurantree.analysis.Aggregate} to summarize the rows of each group,
+ * when grouping an {@link org.jqurantree.analysis.AnalysisTable}.
+ * 
+ * @author Kais Dukes
+ */
+public enum AggregateType {
+
+	/**
+	 * The sum of the column's values. Values are converted to integers.
+	 */
+	Sum,
+
+	/**
+	 * The smallest of the column's values.
+	 */
+	Min,
+
+	/**
+	 * The largest of the column's values.
+	 */
+	Max,
+
+	/**
+	 * The mean of the column's values. Values are converted to integers.
+	 */
+	Average,
+
+	/**
+	 * The number of distinct values in the column.
+	 */
+	CountDistinct,
+
+	/**
+	 * The column's value in the first row of the group.
+	 */
+	First,
+
+	/**
+	 * The column's value in the last row of the group.
+	 */
+	Last
+}
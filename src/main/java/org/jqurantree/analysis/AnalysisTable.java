@@ -18,10 +18,7 @@
 
 package org.jqurantree.analysis;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Iterator;
-import java.util.List;
 
 import org.jqurantree.core.error.Errors;
 import org.jqurantree.core.error.JQuranTreeException;
@@ -41,18 +38,40 @@ import org.jqurantree.core.error.JQuranTreeException;
  * <p>
  * Once the table has been populated, the following operations may be performed:
  * <ul>
- * <li>Sort the data by a column, in ascending or descending order.</li>
- * <li>Group the data by a list of columns.</li>
+ * <li>Sort the data by one or more columns, in ascending or descending
+ * order.</li>
+ * <li>Find the top rows in sort order, without sorting the whole table.</li>
+ * <li>Group the data by a list of columns, optionally computing aggregates
+ * such as the sum or average of other columns.</li>
  * <li>Display the table to screen, or display only the top rows of the table.</li>
  * <li>Export the table to a file, e.g. a tab delimited file or a CSV file.</li>
  * </ul>
+ * <p>
+ * Values are stored by column. The type of each column is taken from its first
+ * value: <code>int</code> values are held in an <code>int[]</code> array,
+ * strings are dictionary encoded, enum values are held as ordinals and Arabic
+ * text is held as a reference into its character buffer, such as the buffer
+ * shared by the orthography model. A column holding values of mixed types
+ * falls back to storing objects.
+ * <p>
+ * Large tables are sorted and grouped in parallel, using the common fork-join
+ * pool. Tables with fewer rows than the parallel threshold are sorted and
+ * grouped sequentially.
  * 
  * @author Kais Dukes
  */
 public class AnalysisTable implements Iterable<Object[]> {
 
+	/**
+	 * The default number of rows at which a table is sorted and grouped in
+	 * parallel.
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 100000;
+
 	private final String[] columnNames;
-	private final List<Object[]> rows = new ArrayList<Object[]>();
+	private final TableColumn[] columns;
+	private int rowCount;
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
 
 	/**
 	 * Creates an empty analysis table with the specified columns and without
@@ -63,6 +82,7 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 */
 	public AnalysisTable(String... columnNames) {
 		this.columnNames = columnNames;
+		columns = new TableColumn[columnNames.length];
 	}
 
 	/**
@@ -71,9 +91,34 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 * @param values
 	 *            the values that make up the row. The number of values
 	 *            specified should match the number of columns in the table.
+	 * 
+	 * @throws JQuranTreeException
+	 *             if the number of values does not match the number of
+	 *             columns
 	 */
 	public void add(Object... values) {
-		rows.add(values);
+		int size = columns.length;
+		if (values.length != size) {
+			throw new JQuranTreeException(Errors.INVALID_ROW_SIZE);
+		}
+		for (int i = 0; i < size; i++) {
+			Object value = values[i];
+
+			// New column?
+			TableColumn column = columns[i];
+			if (column == null) {
+				column = TableColumn.create(value);
+				columns[i] = column;
+			}
+
+			// Fall back to storing objects for values of a different type.
+			if (!column.add(value)) {
+				column = new ObjectColumn(column);
+				columns[i] = column;
+				column.add(value);
+			}
+		}
+		rowCount++;
 	}
 
 	/**
@@ -82,7 +127,35 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 * @return a positive number if the table contains any data, otherwise zero.
 	 */
 	public int getRowCount() {
-		return rows.size();
+		return rowCount;
+	}
+
+	/**
+	 * Gets the number of rows at which the table is sorted and grouped in
+	 * parallel.
+	 * 
+	 * @return the parallel threshold.
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Sets the number of rows at which the table is sorted and grouped in
+	 * parallel. Tables with fewer rows are sorted and grouped sequentially.
+	 * The results are the same in either case.
+	 * 
+	 * @param parallelThreshold
+	 *            the parallel threshold, a positive number.
+	 * 
+	 * @throws JQuranTreeException
+	 *             if the threshold is not positive
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		if (parallelThreshold <= 0) {
+			throw new JQuranTreeException(Errors.INVALID_PARALLEL_THRESHOLD);
+		}
+		this.parallelThreshold = parallelThreshold;
 	}
 
 	/**
@@ -136,7 +209,7 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 * @return the value of the cell at the specified position.
 	 */
 	public Object getValue(int rowIndex, int columnIndex) {
-		return rows.get(rowIndex)[columnIndex];
+		return getColumn(rowIndex, columnIndex).getValue(rowIndex);
 	}
 
 	/**
@@ -164,7 +237,7 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 * @return the value of the cell at the specified position.
 	 */
 	public int getInteger(int rowIndex, int columnIndex) {
-		return Integer.parseInt(getString(rowIndex, columnIndex));
+		return getColumn(rowIndex, columnIndex).getInteger(rowIndex);
 	}
 
 	/**
@@ -192,7 +265,7 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 * @return the value of the cell at the specified position.
 	 */
 	public String getString(int rowIndex, int columnIndex) {
-		return getValue(rowIndex, columnIndex).toString();
+		return getColumn(rowIndex, columnIndex).getString(rowIndex);
 	}
 
 	/**
@@ -217,7 +290,7 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 */
 	@Override
 	public String toString() {
-		return toString(rows.size());
+		return toString(rowCount);
 	}
 
 	/**
@@ -242,7 +315,7 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 *            the name of the file to write to.
 	 */
 	public void writeFile(String filename) {
-		new TableExport().write(this, 0, rows.size(), filename);
+		new TableExport().write(this, 0, rowCount, filename);
 	}
 
 	/**
@@ -256,7 +329,7 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 *            the delimiter character used to write the file
 	 */
 	public void writeFile(String filename, char delimiter) {
-		writeFile(filename, delimiter, rows.size());
+		writeFile(filename, delimiter, rowCount);
 	}
 
 	/**
@@ -284,7 +357,7 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 * @return an <code>iterator</code>.
 	 */
 	public Iterator<Object[]> iterator() {
-		return rows.iterator();
+		return new TableRowIterator(this);
 	}
 
 	/**
@@ -307,15 +380,88 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 *            the order to sort the rows in, ascending or descending.
 	 */
 	public void sort(String columnName, SortOrder direction) {
-		Collections.sort(rows, new TableSort(getValidColumnIndex(columnName),
-				direction));
+		sort(new SortKey(columnName, direction));
+	}
+
+	/**
+	 * Sorts all rows by a list of sort keys. Rows are sorted by the first key,
+	 * then rows with equal values are sorted by the next key, and so on. Rows
+	 * with equal values for all keys keep their order.
+	 * 
+	 * @param keys
+	 *            the columns to sort by, each with a sort order.
+	 */
+	public void sort(SortKey... keys) {
+		TableSort tableSort = createSort(keys);
+		if (tableSort != null) {
+			reorder(tableSort.sort(rowCount, rowCount >= parallelThreshold));
+		}
+	}
+
+	/**
+	 * Creates a new table holding the top rows of this table, when sorted by a
+	 * column in the specified sort order. This table is not modified. The top
+	 * rows are found using a bounded heap, which is faster than sorting the
+	 * whole table when the number of rows required is small.
+	 * 
+	 * @param rowCount
+	 *            the number of rows to return. If the table contains fewer
+	 *            rows, all rows are returned.
+	 * 
+	 * @param columnName
+	 *            the name of the column to sort by.
+	 * 
+	 * @param direction
+	 *            the order to sort the rows in, ascending or descending.
+	 * 
+	 * @return a table containing the top rows, in sort order.
+	 */
+	public AnalysisTable top(int rowCount, String columnName,
+			SortOrder direction) {
+		return top(rowCount, new SortKey(columnName, direction));
+	}
+
+	/**
+	 * Creates a new table holding the top rows of this table, when sorted by a
+	 * list of sort keys. The rows are the same as the first rows of the table
+	 * after calling {@link #sort(SortKey...)}, but this table is not modified.
+	 * 
+	 * @param rowCount
+	 *            the number of rows to return. If the table contains fewer
+	 *            rows, all rows are returned.
+	 * 
+	 * @param keys
+	 *            the columns to sort by, each with a sort order.
+	 * 
+	 * @return a table containing the top rows, in sort order.
+	 */
+	public AnalysisTable top(int rowCount, SortKey... keys) {
+
+		// Find the top rows.
+		TableSort tableSort = createSort(keys);
+		int[] rowIndexes = tableSort != null ? tableSort.top(this.rowCount,
+				rowCount) : new int[0];
+
+		// Create table.
+		AnalysisTable table = new AnalysisTable(columnNames);
+		table.setParallelThreshold(parallelThreshold);
+		int size = columnNames.length;
+		for (int rowIndex : rowIndexes) {
+			Object[] values = new Object[size];
+			for (int i = 0; i < size; i++) {
+				values[i] = getValue(rowIndex, i);
+			}
+			table.add(values);
+		}
+		return table;
 	}
 
 	/**
 	 * Creates a new table by grouping this analysis table by the specified list
 	 * of columns. The new table will contain the specified columns, together
 	 * with an additional column named <i>Count</i>, which contains the number
-	 * of items in each group.
+	 * of items in each group. Groups are in order of their first row in this
+	 * table.
 	 * 
 	 * @param columnNames
 	 *            the list of columns to group by.
@@ -323,6 +469,27 @@ public class AnalysisTable implements Iterable<Object[]> {
 	 * @return the grouped analysis table.
 	 */
 	public AnalysisTable group(String... columnNames) {
+		return group(columnNames, new Aggregate[0]);
+	}
+
+	/**
+	 * Creates a new table by grouping this analysis table by the specified list
+	 * of columns, and computing the specified aggregates for each group. The
+	 * new table will contain the specified columns, a column named
+	 * <i>Count</i>, which contains the number of items in each group, followed
+	 * by a column for each aggregate. All aggregates are computed in a single
+	 * pass over the table. Groups are in order of their first row in this
+	 * table.
+	 * 
+	 * @param columnNames
+	 *            the list of columns to group by.
+	 * 
+	 * @param aggregates
+	 *            the aggregates to compute, such as the sum of a column.
+	 * 
+	 * @return the grouped analysis table.
+	 */
+	public AnalysisTable group(String[] columnNames, Aggregate... aggregates) {
 
 		// Column indexes.
 		int size = columnNames.length;
@@ -331,8 +498,56 @@ public class AnalysisTable implements Iterable<Object[]> {
 			columnIndexes[i] = getValidColumnIndex(columnNames[i]);
 		}
 
+		// Aggregate column indexes.
+		size = aggregates.length;
+		int[] aggregateColumnIndexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			aggregateColumnIndexes[i] = getValidColumnIndex(aggregates[i]
+					.getColumnName());
+		}
+
 		// Group.
-		return new TableGroup().group(this, columnIndexes);
+		return new TableGroup().group(this, columnIndexes, aggregates,
+				aggregateColumnIndexes);
+	}
+
+	private TableSort createSort(SortKey[] keys) {
+
+		// Sort columns.
+		int size = keys.length;
+		int[] columnIndexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			columnIndexes[i] = getValidColumnIndex(keys[i].getColumnName());
+		}
+		if (rowCount == 0) {
+			return null;
+		}
+
+		// Create sort.
+		TableColumn[] sortColumns = new TableColumn[size];
+		SortOrder[] directions = new SortOrder[size];
+		for (int i = 0; i < size; i++) {
+			sortColumns[i] = columns[columnIndexes[i]];
+			directions[i] = keys[i].getDirection();
+		}
+		return new TableSort(sortColumns, directions);
+	}
+
+	TableColumn getColumn(int columnIndex) {
+		return columns[columnIndex];
+	}
+
+	void reorder(int[] rowIndexes) {
+		for (TableColumn column : columns) {
+			column.reorder(rowIndexes);
+		}
+	}
+
+	private TableColumn getColumn(int rowIndex, int columnIndex) {
+		if (rowIndex < 0 || rowIndex >= rowCount) {
+			throw new IndexOutOfBoundsException();
+		}
+		return columns[columnIndex];
 	}
 
 	private int getValidColumnIndex(String columnName) {
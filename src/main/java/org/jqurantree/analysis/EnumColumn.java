@@ -0,0 +1,67 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+class EnumColumn extends TableColumn {
+
+	private final Class<?> enumType;
+	private final Object[] constants;
+	private int[] ordinals = new int[INITIAL_CAPACITY];
+
+	public EnumColumn(Class<?> enumType) {
+		this.enumType = enumType;
+		constants = enumType.getEnumConstants();
+	}
+
+	@Override
+	public boolean add(Object value) {
+		if (!(value instanceof Enum)
+				|| ((Enum<?>) value).getDeclaringClass() != enumType) {
+			return false;
+		}
+		ordinals = ensureCapacity(ordinals, rowCount);
+		ordinals[rowCount++] = ((Enum<?>) value).ordinal();
+		return true;
+	}
+
+	@Override
+	public Object getValue(int rowIndex) {
+		return constants[ordinals[rowIndex]];
+	}
+
+	@Override
+	public int compare(int rowIndex1, int rowIndex2) {
+		return ordinals[rowIndex1] - ordinals[rowIndex2];
+	}
+
+	@Override
+	public int[] getRanks() {
+		return ordinals;
+	}
+
+	@Override
+	public int[] getKeys() {
+		return ordinals;
+	}
+
+	@Override
+	public void reorder(int[] rowIndexes) {
+		ordinals = reorder(ordinals, rowIndexes);
+	}
+}
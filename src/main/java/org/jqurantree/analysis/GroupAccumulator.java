@@ -0,0 +1,153 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+import java.util.Arrays;
+
+class GroupAccumulator {
+
+	private final AggregateType type;
+	private final TableColumn column;
+	private long[] sums;
+	private int[] values;
+	private int[] rowGroups;
+	private GroupMap distinctMap;
+
+	public GroupAccumulator(AggregateType type, TableColumn column,
+			int[][] distinctKeys) {
+		this.type = type;
+		this.column = column;
+
+		// Primitive accumulators. Min, max, first and last hold a row index.
+		if (type == AggregateType.Sum || type == AggregateType.Average) {
+			sums = new long[16];
+		} else {
+			values = new int[16];
+		}
+
+		// Distinct values are counted by grouping on the group index of each
+		// row together with the column's key.
+		if (type == AggregateType.CountDistinct) {
+			rowGroups = distinctKeys[0];
+			distinctMap = new GroupMap(distinctKeys);
+		}
+	}
+
+	public void add(int groupIndex, int rowIndex, boolean isNewGroup) {
+		ensureCapacity(groupIndex + 1);
+
+		// Accumulate.
+		switch (type) {
+		case Sum:
+		case Average:
+			sums[groupIndex] += column.getInteger(rowIndex);
+			break;
+		case CountDistinct:
+			rowGroups[rowIndex] = groupIndex;
+			addDistinct(groupIndex, rowIndex);
+			break;
+		default:
+			addRow(groupIndex, rowIndex, isNewGroup);
+			break;
+		}
+	}
+
+	public void merge(GroupAccumulator accumulator, int[] groupIndexes,
+			int groupCount) {
+
+		// The merged accumulator holds later rows.
+		if (distinctMap == null) {
+			int size = groupIndexes.length;
+			for (int i = 0; i < size; i++) {
+				int groupIndex = groupIndexes[i];
+				ensureCapacity(groupIndex + 1);
+				if (sums != null) {
+					sums[groupIndex] += accumulator.sums[i];
+				} else {
+					addRow(groupIndex, accumulator.values[i],
+							groupIndex >= groupCount);
+				}
+			}
+			return;
+		}
+
+		// Distinct values, renumbered by group.
+		int size = accumulator.distinctMap.getGroupCount();
+		for (int i = 0; i < size; i++) {
+			int rowIndex = accumulator.distinctMap.getRowIndex(i);
+			int groupIndex = groupIndexes[rowGroups[rowIndex]];
+			ensureCapacity(groupIndex + 1);
+			rowGroups[rowIndex] = groupIndex;
+			addDistinct(groupIndex, rowIndex);
+		}
+	}
+
+	public Object getValue(int groupIndex, int rowCount) {
+		switch (type) {
+		case Sum:
+			return sums[groupIndex];
+		case Average:
+			return (double) sums[groupIndex] / rowCount;
+		case CountDistinct:
+			return values[groupIndex];
+		default:
+			return column.getValue(values[groupIndex]);
+		}
+	}
+
+	private void addRow(int groupIndex, int rowIndex, boolean isNewGroup) {
+		switch (type) {
+		case Min:
+			if (isNewGroup || column.compare(rowIndex, values[groupIndex]) < 0) {
+				values[groupIndex] = rowIndex;
+			}
+			break;
+		case Max:
+			if (isNewGroup || column.compare(rowIndex, values[groupIndex]) > 0) {
+				values[groupIndex] = rowIndex;
+			}
+			break;
+		case First:
+			if (isNewGroup) {
+				values[groupIndex] = rowIndex;
+			}
+			break;
+		default:
+			values[groupIndex] = rowIndex;
+			break;
+		}
+	}
+
+	private void addDistinct(int groupIndex, int rowIndex) {
+		int distinctCount = distinctMap.getGroupCount();
+		distinctMap.add(rowIndex);
+		if (distinctMap.getGroupCount() > distinctCount) {
+			values[groupIndex]++;
+		}
+	}
+
+	private void ensureCapacity(int groupCount) {
+		if (sums != null && groupCount > sums.length) {
+			sums = Arrays.copyOf(sums, Math.max(groupCount, sums.length * 2));
+		} else if (values != null && groupCount > values.length) {
+			values = Arrays.copyOf(values, Math.max(groupCount,
+					values.length * 2));
+		}
+	}
+}
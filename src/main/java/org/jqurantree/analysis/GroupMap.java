@@ -0,0 +1,109 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+import java.util.Arrays;
+
+class GroupMap {
+
+	private final int[][] keys;
+	private int[] slots = new int[INITIAL_CAPACITY * 2];
+	private int[] groupRowIndexes = new int[INITIAL_CAPACITY];
+	private int[] groupHashes = new int[INITIAL_CAPACITY];
+	private int groupCount;
+	private static final int INITIAL_CAPACITY = 16;
+
+	public GroupMap(int[][] keys) {
+		this.keys = keys;
+	}
+
+	public int getGroupCount() {
+		return groupCount;
+	}
+
+	public int getRowIndex(int groupIndex) {
+		return groupRowIndexes[groupIndex];
+	}
+
+	public int add(int rowIndex) {
+
+		// Probe for an existing group. Slots hold a group index plus one, so
+		// that an empty slot is zero.
+		int hash = getHash(rowIndex);
+		int mask = slots.length - 1;
+		int slot = hash & mask;
+		int entry;
+		while ((entry = slots[slot]) != 0) {
+			int groupIndex = entry - 1;
+			if (groupHashes[groupIndex] == hash
+					&& isEqual(groupRowIndexes[groupIndex], rowIndex)) {
+				return groupIndex;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		// New group. Groups are numbered in order of their first row.
+		int groupIndex = groupCount++;
+		if (groupIndex == groupRowIndexes.length) {
+			groupRowIndexes = Arrays.copyOf(groupRowIndexes, groupIndex * 2);
+			groupHashes = Arrays.copyOf(groupHashes, groupIndex * 2);
+		}
+		groupRowIndexes[groupIndex] = rowIndex;
+		groupHashes[groupIndex] = hash;
+		slots[slot] = groupCount;
+
+		// Keep the load factor at or below one half.
+		if (groupCount * 2 > slots.length) {
+			rehash();
+		}
+		return groupIndex;
+	}
+
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for (int i = 0; i < groupCount; i++) {
+			int slot = groupHashes[i] & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = i + 1;
+		}
+	}
+
+	private int getHash(int rowIndex) {
+		int hash = 0;
+		for (int[] columnKeys : keys) {
+			hash = hash * 31 + columnKeys[rowIndex];
+		}
+
+		// Spread the bits, since keys are often small consecutive integers.
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	private boolean isEqual(int rowIndex1, int rowIndex2) {
+		for (int[] columnKeys : keys) {
+			if (columnKeys[rowIndex1] != columnKeys[rowIndex2]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,106 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+import java.util.Arrays;
+
+class GroupPartition {
+
+	private final GroupMap groupMap;
+	private final GroupAccumulator[] accumulators;
+	private int[] rowCounts = new int[16];
+
+	public GroupPartition(int[][] keys, AggregateType[] types,
+			TableColumn[] columns, int[][][] distinctKeys) {
+		groupMap = new GroupMap(keys);
+		int size = types.length;
+		accumulators = new GroupAccumulator[size];
+		for (int i = 0; i < size; i++) {
+			accumulators[i] = new GroupAccumulator(types[i], columns[i],
+					distinctKeys[i]);
+		}
+	}
+
+	public int getGroupCount() {
+		return groupMap.getGroupCount();
+	}
+
+	public int getRowIndex(int groupIndex) {
+		return groupMap.getRowIndex(groupIndex);
+	}
+
+	public int getRowCount(int groupIndex) {
+		return rowCounts[groupIndex];
+	}
+
+	public Object getValue(int groupIndex, int aggregateIndex) {
+		return accumulators[aggregateIndex].getValue(groupIndex,
+				rowCounts[groupIndex]);
+	}
+
+	public void add(int startRowIndex, int endRowIndex) {
+		for (int i = startRowIndex; i < endRowIndex; i++) {
+
+			// Find or create the group.
+			int groupCount = groupMap.getGroupCount();
+			int groupIndex = groupMap.add(i);
+			if (groupIndex == rowCounts.length) {
+				rowCounts = Arrays.copyOf(rowCounts, groupIndex * 2);
+			}
+
+			// Increment group row count.
+			rowCounts[groupIndex]++;
+
+			// Aggregate.
+			boolean isNewGroup = groupIndex == groupCount;
+			for (GroupAccumulator accumulator : accumulators) {
+				accumulator.add(groupIndex, i, isNewGroup);
+			}
+		}
+	}
+
+	public void merge(GroupPartition partition) {
+
+		// Map the partition's groups, which hold later rows. Groups remain in
+		// order of their first row.
+		int groupCount = groupMap.getGroupCount();
+		int size = partition.getGroupCount();
+		int[] groupIndexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			groupIndexes[i] = groupMap.add(partition.getRowIndex(i));
+		}
+
+		// Merge row counts.
+		int newGroupCount = groupMap.getGroupCount();
+		if (newGroupCount > rowCounts.length) {
+			rowCounts = Arrays.copyOf(rowCounts, Math.max(newGroupCount,
+					rowCounts.length * 2));
+		}
+		for (int i = 0; i < size; i++) {
+			rowCounts[groupIndexes[i]] += partition.rowCounts[i];
+		}
+
+		// Merge aggregates.
+		int aggregateCount = accumulators.length;
+		for (int i = 0; i < aggregateCount; i++) {
+			accumulators[i].merge(partition.accumulators[i], groupIndexes,
+					groupCount);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+import java.util.concurrent.RecursiveTask;
+
+class GroupTask extends RecursiveTask<GroupPartition> {
+
+	private static final long serialVersionUID = 1L;
+	private final TableGroup tableGroup;
+	private final int startRowIndex;
+	private final int endRowIndex;
+	private final int partitionSize;
+
+	public GroupTask(TableGroup tableGroup, int startRowIndex,
+			int endRowIndex, int partitionSize) {
+		this.tableGroup = tableGroup;
+		this.startRowIndex = startRowIndex;
+		this.endRowIndex = endRowIndex;
+		this.partitionSize = partitionSize;
+	}
+
+	@Override
+	protected GroupPartition compute() {
+
+		// Group a single partition.
+		if (endRowIndex - startRowIndex <= partitionSize) {
+			GroupPartition partition = tableGroup.createPartition();
+			partition.add(startRowIndex, endRowIndex);
+			return partition;
+		}
+
+		// Split, then merge the later rows into the earlier rows.
+		int midRowIndex = (startRowIndex + endRowIndex) >>> 1;
+		GroupTask task = new GroupTask(tableGroup, startRowIndex, midRowIndex,
+				partitionSize);
+		task.fork();
+		GroupPartition partition = new GroupTask(tableGroup, midRowIndex,
+				endRowIndex, partitionSize).compute();
+		GroupPartition result = task.join();
+		result.merge(partition);
+		return result;
+	}
+}
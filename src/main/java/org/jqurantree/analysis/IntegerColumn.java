@@ -0,0 +1,71 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+class IntegerColumn extends TableColumn {
+
+	private int[] values = new int[INITIAL_CAPACITY];
+
+	@Override
+	public boolean add(Object value) {
+		if (!(value instanceof Integer)) {
+			return false;
+		}
+		values = ensureCapacity(values, rowCount);
+		values[rowCount++] = (Integer) value;
+		return true;
+	}
+
+	@Override
+	public Object getValue(int rowIndex) {
+		return values[rowIndex];
+	}
+
+	@Override
+	public String getString(int rowIndex) {
+		return Integer.toString(values[rowIndex]);
+	}
+
+	@Override
+	public int getInteger(int rowIndex) {
+		return values[rowIndex];
+	}
+
+	@Override
+	public int compare(int rowIndex1, int rowIndex2) {
+		int value1 = values[rowIndex1];
+		int value2 = values[rowIndex2];
+		return value1 < value2 ? -1 : (value1 == value2 ? 0 : 1);
+	}
+
+	@Override
+	public int[] getRanks() {
+		return values;
+	}
+
+	@Override
+	public int[] getKeys() {
+		return values;
+	}
+
+	@Override
+	public void reorder(int[] rowIndexes) {
+		values = reorder(values, rowIndexes);
+	}
+}
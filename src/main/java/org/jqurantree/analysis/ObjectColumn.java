@@ -0,0 +1,77 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+import java.util.Arrays;
+
+import org.jqurantree.arabic.ArabicText;
+
+class ObjectColumn extends TableColumn {
+
+	private Object[] values = new Object[INITIAL_CAPACITY];
+
+	public ObjectColumn() {
+	}
+
+	public ObjectColumn(TableColumn column) {
+
+		// Copy values from a typed column.
+		int size = column.getRowCount();
+		values = new Object[Math.max(size, INITIAL_CAPACITY)];
+		for (int i = 0; i < size; i++) {
+			values[i] = column.getValue(i);
+		}
+		rowCount = size;
+	}
+
+	@Override
+	public boolean add(Object value) {
+		if (rowCount == values.length) {
+			values = Arrays.copyOf(values, rowCount * 2);
+		}
+		values[rowCount++] = value;
+		return true;
+	}
+
+	@Override
+	public Object getValue(int rowIndex) {
+		return values[rowIndex];
+	}
+
+	@Override
+	public int compare(int rowIndex1, int rowIndex2) {
+		Object value1 = values[rowIndex1];
+		Object value2 = values[rowIndex2];
+		if (value1 instanceof ArabicText && value2 instanceof ArabicText) {
+			return TextColumn.compareText((ArabicText) value1,
+					(ArabicText) value2);
+		}
+		return super.compare(rowIndex1, rowIndex2);
+	}
+
+	@Override
+	public void reorder(int[] rowIndexes) {
+		Object[] reordered = new Object[values.length];
+		int size = rowIndexes.length;
+		for (int i = 0; i < size; i++) {
+			reordered[i] = values[rowIndexes[i]];
+		}
+		values = reordered;
+	}
+}
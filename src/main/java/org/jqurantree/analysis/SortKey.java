@@ -0,0 +1,94 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+/**
+ * A <code>SortKey</code> specifies a column to sort the rows of an
+ * {@link org.jqurantree.analysis.AnalysisTable} by, together with the sort
+ * order for that column. Rows may be sorted by several keys. For example:
+ * <p>
+ * <code>table.sort(SortKey.descending("Count"), SortKey.ascending("Token"));</code>
+ * <p>
+ * Integers, strings and enum values are sorted in their natural order. Arabic
+ * text is sorted by comparing characters in the order of their
+ * {@link org.jqurantree.arabic.CharacterType}, then by their diacritics.
+ * 
+ * @author Kais Dukes
+ */
+public class SortKey {
+
+	private final String columnName;
+	private final SortOrder direction;
+
+	/**
+	 * Creates a new sort key.
+	 * 
+	 * @param columnName
+	 *            the name of the column to sort by
+	 * 
+	 * @param direction
+	 *            the order to sort the column in, ascending or descending
+	 */
+	public SortKey(String columnName, SortOrder direction) {
+		this.columnName = columnName;
+		this.direction = direction;
+	}
+
+	/**
+	 * Creates a sort key for a column in ascending order.
+	 * 
+	 * @param columnName
+	 *            the name of the column to sort by
+	 * 
+	 * @return the sort key
+	 */
+	public static SortKey ascending(String columnName) {
+		return new SortKey(columnName, SortOrder.Ascending);
+	}
+
+	/**
+	 * Creates a sort key for a column in descending order.
+	 * 
+	 * @param columnName
+	 *            the name of the column to sort by
+	 * 
+	 * @return the sort key
+	 */
+	public static SortKey descending(String columnName) {
+		return new SortKey(columnName, SortOrder.Descending);
+	}
+
+	/**
+	 * Gets the name of the column to sort by.
+	 * 
+	 * @return the column name
+	 */
+	public String getColumnName() {
+		return columnName;
+	}
+
+	/**
+	 * Gets the order to sort the column in.
+	 * 
+	 * @return the sort order
+	 */
+	public SortOrder getDirection() {
+		return direction;
+	}
+}
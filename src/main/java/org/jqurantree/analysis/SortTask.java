@@ -0,0 +1,62 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+import java.util.concurrent.RecursiveAction;
+
+class SortTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+	private final TableSort tableSort;
+	private final int[] rowIndexes;
+	private final int[] buffer;
+	private final int start;
+	private final int end;
+	private final int partitionSize;
+
+	public SortTask(TableSort tableSort, int[] rowIndexes, int[] buffer,
+			int start, int end, int partitionSize) {
+		this.tableSort = tableSort;
+		this.rowIndexes = rowIndexes;
+		this.buffer = buffer;
+		this.start = start;
+		this.end = end;
+		this.partitionSize = partitionSize;
+	}
+
+	@Override
+	protected void compute() {
+
+		// Sort a single partition.
+		if (end - start <= partitionSize) {
+			tableSort.mergeSort(rowIndexes, buffer, start, end);
+			return;
+		}
+
+		// Sort each half in parallel, then merge.
+		int mid = (start + end) >>> 1;
+		SortTask task = new SortTask(tableSort, rowIndexes, buffer, start, mid,
+				partitionSize);
+		task.fork();
+		new SortTask(tableSort, rowIndexes, buffer, mid, end, partitionSize)
+				.compute();
+		task.join();
+		tableSort.merge(rowIndexes, buffer, start, mid, end);
+	}
+}
@@ -0,0 +1,109 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+class StringColumn extends TableColumn {
+
+	private final Map<String, Integer> codeMap = new HashMap<String, Integer>();
+	private String[] dictionary = new String[INITIAL_CAPACITY];
+	private int[] codes = new int[INITIAL_CAPACITY];
+
+	@Override
+	public boolean add(Object value) {
+		if (!(value instanceof String)) {
+			return false;
+		}
+
+		// Dictionary encode.
+		Integer code = codeMap.get(value);
+		if (code == null) {
+			code = codeMap.size();
+			if (code == dictionary.length) {
+				dictionary = Arrays.copyOf(dictionary, code * 2);
+			}
+			dictionary[code] = (String) value;
+			codeMap.put((String) value, code);
+		}
+
+		// Add code.
+		codes = ensureCapacity(codes, rowCount);
+		codes[rowCount++] = code;
+		return true;
+	}
+
+	@Override
+	public Object getValue(int rowIndex) {
+		return dictionary[codes[rowIndex]];
+	}
+
+	@Override
+	public String getString(int rowIndex) {
+		return dictionary[codes[rowIndex]];
+	}
+
+	@Override
+	public int compare(int rowIndex1, int rowIndex2) {
+		int code1 = codes[rowIndex1];
+		int code2 = codes[rowIndex2];
+		return code1 == code2 ? 0 : dictionary[code1]
+				.compareTo(dictionary[code2]);
+	}
+
+	@Override
+	public int[] getRanks() {
+
+		// Sort the dictionary.
+		int size = codeMap.size();
+		Integer[] sortedCodes = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			sortedCodes[i] = i;
+		}
+		Arrays.sort(sortedCodes, new Comparator<Integer>() {
+			public int compare(Integer code1, Integer code2) {
+				return dictionary[code1].compareTo(dictionary[code2]);
+			}
+		});
+
+		// Rank each row by the position of its value in the sorted dictionary.
+		int[] codeRanks = new int[size];
+		for (int i = 0; i < size; i++) {
+			codeRanks[sortedCodes[i]] = i;
+		}
+		int[] ranks = new int[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			ranks[i] = codeRanks[codes[i]];
+		}
+		return ranks;
+	}
+
+	@Override
+	public int[] getKeys() {
+		return codes;
+	}
+
+	@Override
+	public void reorder(int[] rowIndexes) {
+		codes = reorder(codes, rowIndexes);
+	}
+}
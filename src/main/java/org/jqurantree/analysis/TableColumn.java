@@ -0,0 +1,108 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+abstract class TableColumn {
+
+	protected static final int INITIAL_CAPACITY = 16;
+	protected int rowCount;
+
+	public static TableColumn create(Object value) {
+
+		// Choose a typed column for the first value.
+		if (value instanceof Integer) {
+			return new IntegerColumn();
+		}
+		if (value instanceof String) {
+			return new StringColumn();
+		}
+		if (value instanceof Enum) {
+			return new EnumColumn(((Enum<?>) value).getDeclaringClass());
+		}
+		int kind = TextColumn.getKind(value);
+		if (kind != TextColumn.NONE) {
+			return new TextColumn(kind);
+		}
+		return new ObjectColumn();
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public abstract boolean add(Object value);
+
+	public abstract Object getValue(int rowIndex);
+
+	public String getString(int rowIndex) {
+		return getValue(rowIndex).toString();
+	}
+
+	public int getInteger(int rowIndex) {
+		return Integer.parseInt(getString(rowIndex));
+	}
+
+	@SuppressWarnings("unchecked")
+	public int compare(int rowIndex1, int rowIndex2) {
+		Comparable value1 = (Comparable) getValue(rowIndex1);
+		Comparable value2 = (Comparable) getValue(rowIndex2);
+		return value1.compareTo(value2);
+	}
+
+	public abstract void reorder(int[] rowIndexes);
+
+	public int[] getRanks() {
+		return null;
+	}
+
+	public int[] getKeys() {
+
+		// Values are keyed by their string representation.
+		Map<String, Integer> keyMap = new HashMap<String, Integer>();
+		int[] keys = new int[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			String value = String.valueOf(getValue(i));
+			Integer key = keyMap.get(value);
+			if (key == null) {
+				key = keyMap.size();
+				keyMap.put(value, key);
+			}
+			keys[i] = key;
+		}
+		return keys;
+	}
+
+	protected static int[] ensureCapacity(int[] values, int size) {
+		return size < values.length ? values : Arrays.copyOf(values,
+				values.length * 2);
+	}
+
+	protected static int[] reorder(int[] values, int[] rowIndexes) {
+		int[] reordered = new int[values.length];
+		int size = rowIndexes.length;
+		for (int i = 0; i < size; i++) {
+			reordered[i] = values[rowIndexes[i]];
+		}
+		return reordered;
+	}
+}
@@ -18,83 +18,106 @@
 
 package org.jqurantree.analysis;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 class TableGroup {
 
 	private AnalysisTable table;
 	private int[] columnIndexes;
-	private final Map<String, Group> groupMap = new HashMap<String, Group>();
-	private static final char GROUP_KEY_SEPERATOR = '|';
+	private Aggregate[] aggregates;
+	private int[][] keys;
+	private AggregateType[] aggregateTypes;
+	private TableColumn[] aggregateColumns;
+	private int[][][] distinctKeys;
 	private static final String COUNT_COLUMN_NAME = "Count";
+	private static final int MIN_PARTITION_SIZE = 4096;
 
-	public AnalysisTable group(AnalysisTable table, int[] columnIndexes) {
+	public AnalysisTable group(AnalysisTable table, int[] columnIndexes,
+			Aggregate[] aggregates, int[] aggregateColumnIndexes) {
 
 		// Initiate.
 		this.table = table;
 		this.columnIndexes = columnIndexes;
+		this.aggregates = aggregates;
 
-		// Group all rows.
-		int size = table.getRowCount();
+		// Typed keys for each column. Equal values have equal keys.
+		int size = columnIndexes.length;
+		int rowCount = table.getRowCount();
+		keys = new int[size][];
+		for (int i = 0; i < size && rowCount > 0; i++) {
+			keys[i] = table.getColumn(columnIndexes[i]).getKeys();
+		}
+
+		// Aggregate columns. Distinct counts share an array holding the group
+		// index of each row.
+		size = aggregates.length;
+		aggregateTypes = new AggregateType[size];
+		aggregateColumns = new TableColumn[size];
+		distinctKeys = new int[size][][];
 		for (int i = 0; i < size; i++) {
-			groupRow(i);
+			aggregateTypes[i] = aggregates[i].getType();
+			aggregateColumns[i] = table.getColumn(aggregateColumnIndexes[i]);
+			if (aggregateTypes[i] == AggregateType.CountDistinct) {
+				distinctKeys[i] = new int[][] { new int[rowCount],
+						rowCount > 0 ? aggregateColumns[i].getKeys() : null };
+			}
+		}
+
+		// Group all rows. Large tables are partitioned across the fork-join
+		// pool, and the partitions are merged in row order.
+		GroupPartition result;
+		if (rowCount >= table.getParallelThreshold()) {
+			ForkJoinPool pool = ForkJoinPool.commonPool();
+			int partitionSize = Math.max(MIN_PARTITION_SIZE, rowCount
+					/ (pool.getParallelism() * 4));
+			result = pool.invoke(new GroupTask(this, 0, rowCount,
+					partitionSize));
+		} else {
+			result = createPartition();
+			result.add(0, rowCount);
 		}
 
 		// Return.
-		return createGroupTable();
+		return createGroupTable(result);
 	}
 
-	private void groupRow(int rowIndex) {
-
-		// Create group key.
-		String key = getGroupKey(rowIndex);
-
-		// New group?
-		Group group = groupMap.get(key);
-		if (group == null) {
-			group = new Group(rowIndex);
-			groupMap.put(key, group);
-		}
-
-		// Increment group row count.
-		group.setRowCount(group.getRowCount() + 1);
+	GroupPartition createPartition() {
+		return new GroupPartition(keys, aggregateTypes, aggregateColumns,
+				distinctKeys);
 	}
 
-	private AnalysisTable createGroupTable() {
+	private AnalysisTable createGroupTable(GroupPartition result) {
+
 		// Create table.
-		int size = columnIndexes.length + 1;
+		int keyCount = columnIndexes.length;
+		int size = keyCount + 1 + aggregates.length;
 		String[] columnNames = new String[size];
-		for (int i = 0; i < size - 1; i++) {
+		for (int i = 0; i < keyCount; i++) {
 			columnNames[i] = table.getColumnName(columnIndexes[i]);
 		}
-		columnNames[size - 1] = COUNT_COLUMN_NAME;
+		columnNames[keyCount] = COUNT_COLUMN_NAME;
+		for (int i = 0; i < aggregates.length; i++) {
+			columnNames[keyCount + 1 + i] = aggregates[i].getName();
+		}
 		AnalysisTable groupTable = new AnalysisTable(columnNames);
+		groupTable.setParallelThreshold(table.getParallelThreshold());
 
-		// Fill table.
-		for (Group group : groupMap.values()) {
-			int rowIndex = group.getRowIndex();
+		// Fill table, with groups in order of their first row.
+		int groupCount = result.getGroupCount();
+		for (int i = 0; i < groupCount; i++) {
+			int rowIndex = result.getRowIndex(i);
 			Object[] values = new Object[size];
-			for (int i = 0; i < size - 1; i++) {
-				values[i] = table.getValue(rowIndex, columnIndexes[i]);
+			for (int j = 0; j < keyCount; j++) {
+				values[j] = table.getValue(rowIndex, columnIndexes[j]);
+			}
+			values[keyCount] = result.getRowCount(i);
+			for (int j = 0; j < aggregates.length; j++) {
+				values[keyCount + 1 + j] = result.getValue(i, j);
 			}
-			values[size - 1] = group.getRowCount();
 			groupTable.add(values);
 		}
 
 		// Return table.
 		return groupTable;
 	}
-
-	private String getGroupKey(int rowIndex) {
-		StringBuilder text = new StringBuilder();
-		int size = columnIndexes.length;
-		for (int i = 0; i < size; i++) {
-			if (i > 0) {
-				text.append(GROUP_KEY_SEPERATOR);
-			}
-			text.append(table.getValue(rowIndex, columnIndexes[i]));
-		}
-		return text.toString();
-	}
 }
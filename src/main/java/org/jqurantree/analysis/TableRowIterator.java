@@ -16,38 +16,32 @@
  * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
  */
 
-package org.jqurantree.orthography;
-
-import java.util.Iterator;
+package org.jqurantree.analysis;
 
 import org.jqurantree.core.collections.ImmutableIteratorBase;
 
-class DocumentVerseIterator extends ImmutableIteratorBase<Verse> implements
-		Iterable<Verse> {
-
-	private final Chapter[] chapters;
-	private Verse[] verses;
-	private int chapterNumber;
-	private int verseNumber;
+class TableRowIterator extends ImmutableIteratorBase<Object[]> {
 
-	public DocumentVerseIterator(Chapter[] chapters) {
-		this.chapters = chapters;
-	}
+	private final AnalysisTable table;
+	private int rowIndex;
 
-	public Iterator<Verse> iterator() {
-		return this;
+	public TableRowIterator(AnalysisTable table) {
+		this.table = table;
 	}
 
+	@Override
 	public boolean hasNext() {
-		return chapterNumber < Document.CHAPTER_COUNT
-				|| verseNumber < verses.length;
+		return rowIndex < table.getRowCount();
 	}
 
-	public Verse next() {
-		if (verses == null || ++verseNumber > verses.length) {
-			verses = chapters[++chapterNumber - 1].verses;
-			verseNumber = 1;
+	@Override
+	public Object[] next() {
+		int size = table.getColumnCount();
+		Object[] values = new Object[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = table.getValue(rowIndex, i);
 		}
-		return verses[verseNumber - 1];
+		rowIndex++;
+		return values;
 	}
 }
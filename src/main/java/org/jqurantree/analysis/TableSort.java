@@ -18,23 +18,212 @@
 
 package org.jqurantree.analysis;
 
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
-class TableSort implements Comparator<Object[]> {
+class TableSort {
 
-	private final int columnIndex;
-	private final SortOrder direction;
+	private final TableColumn[] columns;
+	private final boolean[] isDescending;
+	private final int[][] ranks;
+	private static final int INSERTION_SORT_SIZE = 16;
+	private static final int MIN_PARTITION_SIZE = 4096;
 
-	public TableSort(int columnIndex, SortOrder direction) {
-		this.columnIndex = columnIndex;
-		this.direction = direction;
+	public TableSort(TableColumn[] columns, SortOrder[] directions) {
+		this.columns = columns;
+
+		// Integer ranks, where the column provides them, are compared directly
+		// without calling the column.
+		int size = columns.length;
+		isDescending = new boolean[size];
+		ranks = new int[size][];
+		for (int i = 0; i < size; i++) {
+			isDescending[i] = directions[i] == SortOrder.Descending;
+			ranks[i] = columns[i].getRanks();
+		}
+	}
+
+	public int compare(int rowIndex1, int rowIndex2) {
+		int size = columns.length;
+		for (int i = 0; i < size; i++) {
+
+			// Compare values.
+			int compare;
+			int[] columnRanks = ranks[i];
+			if (columnRanks != null) {
+				int rank1 = columnRanks[rowIndex1];
+				int rank2 = columnRanks[rowIndex2];
+				compare = rank1 < rank2 ? -1 : (rank1 == rank2 ? 0 : 1);
+			} else {
+				compare = columns[i].compare(rowIndex1, rowIndex2);
+			}
+
+			// Sort order.
+			if (compare != 0) {
+				return isDescending[i] ? (compare < 0 ? 1 : -1) : compare;
+			}
+		}
+
+		// Equal rows keep their order.
+		return rowIndex1 - rowIndex2;
+	}
+
+	public int[] sort(int rowCount, boolean isParallel) {
+
+		// A single integer ranked column is sorted as primitive items.
+		if (columns.length == 1 && ranks[0] != null) {
+			return sortRanks(rowCount, isParallel);
+		}
+
+		// Sort row indexes. Large tables are partitioned across the fork-join
+		// pool, and sorted partitions are merged.
+		int[] rowIndexes = new int[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			rowIndexes[i] = i;
+		}
+		int[] buffer = new int[rowCount];
+		if (isParallel) {
+			ForkJoinPool pool = ForkJoinPool.commonPool();
+			int partitionSize = Math.max(MIN_PARTITION_SIZE, rowCount
+					/ (pool.getParallelism() * 4));
+			pool.invoke(new SortTask(this, rowIndexes, buffer, 0, rowCount,
+					partitionSize));
+		} else {
+			mergeSort(rowIndexes, buffer, 0, rowCount);
+		}
+		return rowIndexes;
+	}
+
+	public int[] top(int rowCount, int count) {
+
+		// Bounded heap of the first rows in sort order, with the last of these
+		// rows at the root.
+		int size = Math.max(0, Math.min(count, rowCount));
+		int[] heap = new int[size];
+		for (int i = 0; i < rowCount && size > 0; i++) {
+			if (i < size) {
+				heap[i] = i;
+				siftUp(heap, i);
+			} else if (compare(i, heap[0]) < 0) {
+				heap[0] = i;
+				siftDown(heap, 0, size);
+			}
+		}
+
+		// Sort the heap, by repeatedly moving the last row to the end.
+		for (int i = size - 1; i > 0; i--) {
+			int rowIndex = heap[0];
+			heap[0] = heap[i];
+			heap[i] = rowIndex;
+			siftDown(heap, 0, i);
+		}
+		return heap;
+	}
+
+	private int[] sortRanks(int rowCount, boolean isParallel) {
+
+		// Pack the rank of each row with its index, so that sorting the
+		// primitive items is stable. Inverting the rank reverses the order.
+		int[] ranks = this.ranks[0];
+		long[] items = new long[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			int rank = isDescending[0] ? ~ranks[i] : ranks[i];
+			items[i] = ((long) rank << 32) | i;
+		}
+
+		// Sort.
+		if (isParallel) {
+			Arrays.parallelSort(items);
+		} else {
+			Arrays.sort(items);
+		}
+
+		// Unpack row indexes.
+		int[] rowIndexes = new int[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			rowIndexes[i] = (int) items[i];
+		}
+		return rowIndexes;
+	}
+
+	void mergeSort(int[] rowIndexes, int[] buffer, int start, int end) {
+
+		// Insertion sort for small ranges.
+		if (end - start <= INSERTION_SORT_SIZE) {
+			for (int i = start + 1; i < end; i++) {
+				int rowIndex = rowIndexes[i];
+				int j = i;
+				while (j > start && compare(rowIndexes[j - 1], rowIndex) > 0) {
+					rowIndexes[j] = rowIndexes[j - 1];
+					j--;
+				}
+				rowIndexes[j] = rowIndex;
+			}
+			return;
+		}
+
+		// Sort each half.
+		int mid = (start + end) >>> 1;
+		mergeSort(rowIndexes, buffer, start, mid);
+		mergeSort(rowIndexes, buffer, mid, end);
+		merge(rowIndexes, buffer, start, mid, end);
+	}
+
+	void merge(int[] rowIndexes, int[] buffer, int start, int mid, int end) {
+
+		// Already in order.
+		if (compare(rowIndexes[mid - 1], rowIndexes[mid]) <= 0) {
+			return;
+		}
+
+		// Merge.
+		System.arraycopy(rowIndexes, start, buffer, start, end - start);
+		int i = start;
+		int j = mid;
+		for (int k = start; k < end; k++) {
+			if (j == end || (i < mid && compare(buffer[i], buffer[j]) <= 0)) {
+				rowIndexes[k] = buffer[i++];
+			} else {
+				rowIndexes[k] = buffer[j++];
+			}
+		}
+	}
+
+	private void siftUp(int[] heap, int index) {
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (compare(heap[index], heap[parent]) <= 0) {
+				break;
+			}
+			swap(heap, index, parent);
+			index = parent;
+		}
+	}
+
+	private void siftDown(int[] heap, int index, int size) {
+		while (true) {
+
+			// Find the later child.
+			int child = 2 * index + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && compare(heap[child + 1], heap[child]) > 0) {
+				child++;
+			}
+
+			// Swap.
+			if (compare(heap[child], heap[index]) <= 0) {
+				break;
+			}
+			swap(heap, index, child);
+			index = child;
+		}
 	}
 
-	@SuppressWarnings("unchecked")
-	public int compare(Object[] row1, Object[] row2) {
-		Comparable value1 = (Comparable) row1[columnIndex];
-		Comparable value2 = (Comparable) row2[columnIndex];
-		return direction == SortOrder.Ascending ? value1.compareTo(value2)
-				: value2.compareTo(value1);
+	private void swap(int[] heap, int index1, int index2) {
+		int rowIndex = heap[index1];
+		heap[index1] = heap[index2];
+		heap[index2] = rowIndex;
 	}
 }
@@ -18,24 +18,11 @@
 
 package org.jqurantree.analysis;
 
-class Group {
+import org.jqurantree.arabic.ArabicText;
 
-	private final int rowIndex;
-	private int rowCount;
+class TableText extends ArabicText {
 
-	public Group(int rowIndex) {
-		this.rowIndex = rowIndex;
-	}
-
-	public int getRowIndex() {
-		return rowIndex;
-	}
-
-	public void setRowCount(int rowCount) {
-		this.rowCount = rowCount;
-	}
-
-	public int getRowCount() {
-		return rowCount;
+	public TableText(byte[] buffer, int offset, int characterCount) {
+		super(buffer, offset, characterCount);
 	}
 }
@@ -0,0 +1,212 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.analysis;
+
+import java.util.Arrays;
+
+import org.jqurantree.arabic.ArabicText;
+import org.jqurantree.arabic.ByteFormat;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.Token;
+import org.jqurantree.orthography.Verse;
+
+class TextColumn extends TableColumn {
+
+	static final int NONE = -1;
+	static final int TEXT = 0;
+	static final int TOKEN = 1;
+	static final int VERSE = 2;
+
+	private final int kind;
+	private byte[] buffer = new byte[INITIAL_CAPACITY
+			* ByteFormat.CHARACTER_WIDTH];
+	private int bufferSize;
+	private int[] offsets = new int[INITIAL_CAPACITY];
+	private int[] lengths = new int[INITIAL_CAPACITY];
+	private int[] ordinals;
+
+	public TextColumn(int kind) {
+		this.kind = kind;
+		if (kind != TEXT) {
+			ordinals = new int[INITIAL_CAPACITY];
+		}
+	}
+
+	@Override
+	public boolean add(Object value) {
+		if (getKind(value) != kind) {
+			return false;
+		}
+
+		// Copy the characters into the column's buffer.
+		ArabicText text = (ArabicText) value;
+		byte[] characters = text.toByteArray();
+		if (bufferSize + characters.length > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2,
+					bufferSize + characters.length));
+		}
+		System.arraycopy(characters, 0, buffer, bufferSize, characters.length);
+
+		// Tokens and verses also store their ordinal, so that their type is
+		// preserved.
+		offsets = ensureCapacity(offsets, rowCount);
+		lengths = ensureCapacity(lengths, rowCount);
+		if (kind == TOKEN) {
+			ordinals = ensureCapacity(ordinals, rowCount);
+			ordinals[rowCount] = ((Token) text).getOrdinal();
+		} else if (kind == VERSE) {
+			ordinals = ensureCapacity(ordinals, rowCount);
+			ordinals[rowCount] = ((Verse) text).getOrdinal();
+		}
+		offsets[rowCount] = bufferSize;
+		lengths[rowCount++] = text.getLength();
+		bufferSize += characters.length;
+		return true;
+	}
+
+	@Override
+	public Object getValue(int rowIndex) {
+		if (kind == TOKEN) {
+			return Document.getTokenByOrdinal(ordinals[rowIndex]);
+		}
+		if (kind == VERSE) {
+			return Document.getVerseByOrdinal(ordinals[rowIndex]);
+		}
+
+		// Earlier rows are never overwritten, so the text remains valid if the
+		// buffer grows.
+		return new TableText(buffer, offsets[rowIndex], lengths[rowIndex]);
+	}
+
+	@Override
+	public int compare(int rowIndex1, int rowIndex2) {
+		return compareText(buffer, offsets[rowIndex1], lengths[rowIndex1],
+				buffer, offsets[rowIndex2], lengths[rowIndex2]);
+	}
+
+	@Override
+	public int[] getKeys() {
+
+		// Verses are keyed by ordinal, since each verse is distinct.
+		if (kind == VERSE) {
+			return ordinals;
+		}
+
+		// Rows with the same characters share a key. Text is hashed and
+		// compared on the buffer bytes, without creating strings. Slots hold a
+		// key plus one, so that an empty slot is zero.
+		int capacity = INITIAL_CAPACITY;
+		while (capacity < rowCount * 2) {
+			capacity *= 2;
+		}
+		int[] slots = new int[capacity];
+		int[] keyRowIndexes = new int[rowCount];
+		int[] keyHashes = new int[rowCount];
+		int[] keys = new int[rowCount];
+		int mask = capacity - 1;
+		int keyCount = 0;
+		for (int i = 0; i < rowCount; i++) {
+			int hash = getHash(i);
+			int slot = hash & mask;
+			int entry;
+			while ((entry = slots[slot]) != 0) {
+				if (keyHashes[entry - 1] == hash
+						&& compare(keyRowIndexes[entry - 1], i) == 0) {
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+
+			// New key, numbered in order of its first row.
+			if (entry == 0) {
+				keyRowIndexes[keyCount] = i;
+				keyHashes[keyCount] = hash;
+				entry = ++keyCount;
+				slots[slot] = entry;
+			}
+			keys[i] = entry - 1;
+		}
+		return keys;
+	}
+
+	private int getHash(int rowIndex) {
+		int offset = offsets[rowIndex];
+		int end = offset + lengths[rowIndex] * ByteFormat.CHARACTER_WIDTH;
+		int hash = 0;
+		for (int i = offset; i < end; i++) {
+			hash = hash * 31 + buffer[i];
+		}
+
+		// Spread the bits.
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	@Override
+	public void reorder(int[] rowIndexes) {
+		offsets = reorder(offsets, rowIndexes);
+		lengths = reorder(lengths, rowIndexes);
+		if (kind != TEXT) {
+			ordinals = reorder(ordinals, rowIndexes);
+		}
+	}
+
+	static int compareText(ArabicText text1, ArabicText text2) {
+		byte[] buffer1 = text1.toByteArray();
+		byte[] buffer2 = text2.toByteArray();
+		return compareText(buffer1, 0, text1.getLength(), buffer2, 0, text2
+				.getLength());
+	}
+
+	static int compareText(byte[] buffer1, int offset1, int length1,
+			byte[] buffer2, int offset2, int length2) {
+
+		// Compare characters in the internal byte format, without decoding.
+		int size = Math.min(length1, length2) * ByteFormat.CHARACTER_WIDTH;
+		for (int i = 0; i < size; i++) {
+			int compare = buffer1[offset1 + i] - buffer2[offset2 + i];
+			if (compare != 0) {
+				return compare;
+			}
+		}
+
+		// A prefix sorts first.
+		return length1 - length2;
+	}
+
+	static int getKind(Object value) {
+
+		// Other subclasses of Arabic text are stored as objects, so that their
+		// type is preserved.
+		if (value == null) {
+			return NONE;
+		}
+		Class<?> type = value.getClass();
+		if (type == ArabicText.class || type == TableText.class) {
+			return TEXT;
+		}
+		if (type == Token.class) {
+			return TOKEN;
+		}
+		if (type == Verse.class) {
+			return VERSE;
+		}
+		return NONE;
+	}
+}
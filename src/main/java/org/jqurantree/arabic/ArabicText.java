@@ -18,6 +18,7 @@
 
 package org.jqurantree.arabic;
 
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 
 import org.jqurantree.arabic.encoding.ArabicEncoder;
@@ -148,6 +149,24 @@ public class ArabicText implements Iterable<ArabicCharacter> {
 		return new ArabicText(text, encodingType);
 	}
 
+	/**
+	 * Creates Arabic text from character data in the internal
+	 * {@link ByteFormat}. The character data is copied, so that later changes
+	 * to the array will not affect the returned text.
+	 * 
+	 * @param buffer
+	 *            a <code>byte[]</code> array in the internal {@link ByteFormat}
+	 * 
+	 * @return a new Arabic text instance
+	 * 
+	 * @see #toByteArray()
+	 */
+	public static ArabicText fromByteArray(byte[] buffer) {
+		byte[] copy = new byte[buffer.length];
+		System.arraycopy(buffer, 0, copy, 0, buffer.length);
+		return new ArabicText(copy);
+	}
+
 	/**
 	 * Converts the Arabic text to Unicode.
 	 * 
@@ -191,6 +210,83 @@ public class ArabicText implements Iterable<ArabicCharacter> {
 		return encoder.encode(buffer, offset, characterCount, options);
 	}
 
+	/**
+	 * Appends the Arabic text to an output such as a
+	 * <code>StringBuilder</code>, <code>Writer</code> or
+	 * <code>CharBuffer</code>, according to the specified encoding scheme.
+	 * Unlike {@link #toString(EncodingType)}, no intermediate
+	 * <code>string</code> is created.
+	 * 
+	 * @param output
+	 *            the output to append the text to
+	 * 
+	 * @param encodingType
+	 *            the encoding scheme to use
+	 */
+	public void appendTo(Appendable output, EncodingType encodingType) {
+		appendTo(output, encodingType, null);
+	}
+
+	/**
+	 * Appends the Arabic text to an output such as a
+	 * <code>StringBuilder</code>, <code>Writer</code> or
+	 * <code>CharBuffer</code>, according to the specified encoding scheme and
+	 * encoding options.
+	 * 
+	 * @param output
+	 *            the output to append the text to
+	 * 
+	 * @param encodingType
+	 *            the encoding scheme to use
+	 * 
+	 * @param options
+	 *            the encoding options to use when encoding the text
+	 */
+	public void appendTo(Appendable output, EncodingType encodingType,
+			EncodingOptions options) {
+		ArabicEncoder encoder = EncodingFactory.getEncoder(encodingType);
+		encoder.encode(buffer, offset, characterCount, options, output);
+	}
+
+	/**
+	 * Writes the Arabic text as UTF-8 into a <code>ByteBuffer</code> at its
+	 * current position, according to the specified encoding scheme. If the
+	 * buffer does not have enough space remaining, then nothing is written.
+	 * 
+	 * @param output
+	 *            the <code>ByteBuffer</code> to write to
+	 * 
+	 * @param encodingType
+	 *            the encoding scheme to use
+	 */
+	public void writeUtf8(ByteBuffer output, EncodingType encodingType) {
+		writeUtf8(output, encodingType, null);
+	}
+
+	/**
+	 * Writes the Arabic text as UTF-8 into a <code>ByteBuffer</code> at its
+	 * current position, according to the specified encoding scheme and
+	 * encoding options. If the buffer does not have enough space remaining,
+	 * then nothing is written.
+	 * 
+	 * @param output
+	 *            the <code>ByteBuffer</code> to write to
+	 * 
+	 * @param encodingType
+	 *            the encoding scheme to use
+	 * 
+	 * @param options
+	 *            the encoding options to use when encoding the text
+	 * 
+	 * @throws java.nio.BufferOverflowException
+	 *             if the buffer does not have enough space remaining
+	 */
+	public void writeUtf8(ByteBuffer output, EncodingType encodingType,
+			EncodingOptions options) {
+		ArabicEncoder encoder = EncodingFactory.getEncoder(encodingType);
+		encoder.encodeUtf8(buffer, offset, characterCount, options, output);
+	}
+
 	/**
 	 * Converts the Arabic text to Unicode.
 	 * 
@@ -227,6 +323,20 @@ public class ArabicText implements Iterable<ArabicCharacter> {
 		return toString(EncodingType.Simple);
 	}
 
+	/**
+	 * Gets a copy of the character data in the internal {@link ByteFormat}.
+	 * Each character is represented by 3 bytes in the returned array.
+	 * 
+	 * @return a <code>byte[]</code> array
+	 * 
+	 * @see #fromByteArray(byte[])
+	 */
+	public byte[] toByteArray() {
+		byte[] buffer = new byte[characterCount * ByteFormat.CHARACTER_WIDTH];
+		System.arraycopy(this.buffer, offset, buffer, 0, buffer.length);
+		return buffer;
+	}
+
 	/**
 	 * Gets the number of characters in the text. Each Arabic letter or Quranic
 	 * symbol, including any attached diacritics, counts as a single character.
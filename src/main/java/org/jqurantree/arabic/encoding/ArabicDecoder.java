@@ -40,4 +40,23 @@ public interface ArabicDecoder {
 	 *         {@link org.jqurantree.arabic.ByteFormat}
 	 */
 	public byte[] decode(String text);
+
+	/**
+	 * Decodes a range of a <code>char[]</code> array into the internal
+	 * {@link org.jqurantree.arabic.ByteFormat} according to the encoding
+	 * scheme.
+	 * 
+	 * @param text
+	 *            the array holding plain text characters to decode
+	 * 
+	 * @param offset
+	 *            the index of the first character to decode
+	 * 
+	 * @param length
+	 *            the number of characters to decode
+	 * 
+	 * @return a <code>byte[]</code> array in the internal
+	 *         {@link org.jqurantree.arabic.ByteFormat}
+	 */
+	public byte[] decode(char[] text, int offset, int length);
 }
@@ -18,9 +18,9 @@
 
 package org.jqurantree.arabic.encoding;
 
-import org.jqurantree.arabic.ArabicTextBuilder;
-import org.jqurantree.arabic.CharacterType;
-import org.jqurantree.arabic.DiacriticType;
+import java.util.Arrays;
+
+import org.jqurantree.arabic.ByteFormat;
 
 /**
  * <code>ArabicDecoderBase</code> is an abstract base class providing a common
@@ -29,13 +29,18 @@ import org.jqurantree.arabic.DiacriticType;
  * {@link org.jqurantree.arabic.ArabicText#fromEncoding(String, EncodingType)}
  * method by implementing table-driven decoding. An {@link EncodingTableBase}
  * instance is used to lookup the mapping for each character in the source text.
+ * Decoders hold no mutable state, so a single instance may be shared and used
+ * concurrently by multiple threads.
+ * <p>
+ * Each character is decoded with a single array lookup of a packed code, which
+ * is written directly into the output buffer. Unknown characters are decoded
+ * as whitespace, and a diacritic with no preceding character is ignored.
  * 
  * @author Kais Dukes
  */
 public abstract class ArabicDecoderBase implements ArabicDecoder {
 
 	private final EncodingTableBase encodingTable;
-	private final ArabicTextBuilder builder = new ArabicTextBuilder();
 
 	/**
 	 * Creates a new decoder using the specified encoding table.
@@ -49,39 +54,38 @@ public abstract class ArabicDecoderBase implements ArabicDecoder {
 	}
 
 	public byte[] decode(String text) {
-
-		// Decode each Unicode character.
-		int size = text.length();
-		for (int i = 0; i < size; i++) {
-			decode(text.charAt(i));
-		}
-
-		// Return the buffer.
-		return builder.toByteArray();
+		return decode(text.toCharArray(), 0, text.length());
 	}
 
-	private void decode(char ch) {
+	public byte[] decode(char[] text, int offset, int length) {
 
-		// Look up character type and diacritic type.
-		EncodingTableItem item = encodingTable.getItem(ch);
-		if (item != null) {
-			CharacterType characterType = item.getCharacterType();
-			DiacriticType diacriticType = item.getDiacriticType();
+		// The text will decode to at most one Arabic character for each
+		// Unicode character.
+		byte[] buffer = new byte[length * ByteFormat.CHARACTER_WIDTH];
+		int byteCount = 0;
 
-			// Add character.
-			if (characterType != null) {
-				builder.add(characterType);
-			}
+		// Decode each Unicode character, using its packed code.
+		int end = offset + length;
+		for (int i = offset; i < end; i++) {
+			int code = encodingTable.getCode(text[i]);
 
-			// Add diacritic.
-			if (diacriticType != null) {
-				builder.add(diacriticType);
-			}
+			// Add character.
+			if ((code & EncodingTableItem.CHARACTER_FLAG) != 0) {
+				buffer[byteCount] = (byte) (code >> 16);
+				buffer[byteCount + 1] = (byte) (code >> 8);
+				buffer[byteCount + 2] = (byte) code;
+				byteCount += ByteFormat.CHARACTER_WIDTH;
 
-		} else {
+			} else if (byteCount > 0) {
 
-			// Treat any unknown characters as whitespace.
-			builder.addWhitespace();
+				// Attach diacritic to the previous character.
+				buffer[byteCount - 2] |= (byte) (code >> 8);
+				buffer[byteCount - 1] |= (byte) code;
+			}
 		}
+
+		// Return the buffer.
+		return byteCount == buffer.length ? buffer : Arrays.copyOf(buffer,
+				byteCount);
 	}
 }
@@ -18,6 +18,14 @@
 
 package org.jqurantree.arabic.encoding;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
+
 /**
  * Interface for classes which encode {@link org.jqurantree.arabic.ArabicText}.
  * This interface is used to support the
@@ -42,8 +50,84 @@ public interface ArabicEncoder {
 	 *            the number of characters to encode. Each character is
 	 *            represented by 3 bytes in the buffer.
 	 * 
+	 * @param options
+	 *            the encoding options to use, or <code>null</code> for none
+	 * 
 	 * @return a plain text <code>string</code>
 	 */
 	public String encode(byte[] buffer, int offset, int characterCount,
 			EncodingOptions options);
+
+	/**
+	 * Encodes the internal {@link org.jqurantree.arabic.ByteFormat} according
+	 * to the encoding scheme, appending the plain text to an output such as a
+	 * <code>StringBuilder</code>, <code>Writer</code> or
+	 * <code>CharBuffer</code>. The default implementation appends the result
+	 * of {@link #encode(byte[], int, int, EncodingOptions)}. Encoders may
+	 * override this to avoid creating an intermediate <code>string</code>.
+	 * 
+	 * @param buffer
+	 *            the <code>byte[]</code> array to encode in the internal
+	 *            {@link org.jqurantree.arabic.ByteFormat}
+	 * 
+	 * @param offset
+	 *            the starting offset in the buffer
+	 * 
+	 * @param characterCount
+	 *            the number of characters to encode. Each character is
+	 *            represented by 3 bytes in the buffer.
+	 * 
+	 * @param options
+	 *            the encoding options to use, or <code>null</code> for none
+	 * 
+	 * @param output
+	 *            the output to append the plain text to
+	 * 
+	 * @throws JQuranTreeException
+	 *             if the output could not be written to
+	 */
+	public default void encode(byte[] buffer, int offset,
+			int characterCount, EncodingOptions options, Appendable output) {
+		try {
+			output.append(encode(buffer, offset, characterCount, options));
+		} catch (IOException exception) {
+			throw new JQuranTreeException(Errors.ENCODING_WRITE_FAILED,
+					exception);
+		}
+	}
+
+	/**
+	 * Encodes the internal {@link org.jqurantree.arabic.ByteFormat} according
+	 * to the encoding scheme, writing the plain text as UTF-8 into a
+	 * <code>ByteBuffer</code> at its current position. If the buffer does not
+	 * have enough space remaining for the encoded text, then nothing is written
+	 * and the buffer's position is unchanged. The default implementation
+	 * converts the result of
+	 * {@link #encode(byte[], int, int, EncodingOptions)} to UTF-8.
+	 * 
+	 * @param buffer
+	 *            the <code>byte[]</code> array to encode in the internal
+	 *            {@link org.jqurantree.arabic.ByteFormat}
+	 * 
+	 * @param offset
+	 *            the starting offset in the buffer
+	 * 
+	 * @param characterCount
+	 *            the number of characters to encode. Each character is
+	 *            represented by 3 bytes in the buffer.
+	 * 
+	 * @param options
+	 *            the encoding options to use, or <code>null</code> for none
+	 * 
+	 * @param output
+	 *            the <code>ByteBuffer</code> to write the UTF-8 bytes to
+	 * 
+	 * @throws BufferOverflowException
+	 *             if the buffer does not have enough space remaining
+	 */
+	public default void encodeUtf8(byte[] buffer, int offset,
+			int characterCount, EncodingOptions options, ByteBuffer output) {
+		output.put(encode(buffer, offset, characterCount, options).getBytes(
+				StandardCharsets.UTF_8));
+	}
 }
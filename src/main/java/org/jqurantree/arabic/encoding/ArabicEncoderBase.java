@@ -18,9 +18,16 @@
 
 package org.jqurantree.arabic.encoding;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import org.jqurantree.arabic.ByteFormat;
 import org.jqurantree.arabic.CharacterType;
 import org.jqurantree.arabic.encoding.unicode.UnicodeType;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
 
 /**
  * <code>ArabicEncoderBase</code> is an abstract base class providing a common
@@ -51,30 +58,44 @@ import org.jqurantree.arabic.encoding.unicode.UnicodeType;
  * <i>- Hamza above<br/> - Shadda<br/> - Fathatan<br/> - Dammatan<br/> -
  * Kasratan<br/> - Fatha<br/> - Damma<br/> - Kasra<br/> - Sukun<br/> -
  * Maddah<br/></i>
+ * <p>
+ * The output for each distinct combination of character and diacritics is
+ * computed once using the above algorithm, then cached by the encoder in a
+ * lookup table keyed by the 3-byte {@link org.jqurantree.arabic.ByteFormat}
+ * code, with a separate table for each {@link EncodingOptions} value. Encoding
+ * a character is then a table lookup, and its output is written directly
+ * to the destination.
+ * <p>
+ * Encoders may be shared and used concurrently by multiple threads. The lookup
+ * tables are immutable, and are replaced with a new copy when a new code is
+ * added.
  * 
  * @author Kais Dukes
  */
 public abstract class ArabicEncoderBase implements ArabicEncoder {
 
-	private byte[] buffer;
-	private int offset;
-	private byte value;
-	private boolean isMaddah;
-	private boolean isHamzaAbove;
 	private final EncodingTableBase encodingTable;
+	private final AtomicReferenceArray<FragmentTable> fragmentTables;
+	private volatile String seperator;
 	private EncodingOptions options;
- 
+
 	/**
 	 * A <code>string</code> buffer used to hold the encoder's plain text
-	 * output.
+	 * output, when calling the deprecated protected methods.
+	 * 
+	 * @deprecated derived encoders should write to the
+	 *             <code>StringBuilder</code> passed to
+	 *             {@link #encodeCharacter(StringBuilder, byte[], int, EncodingOptions)}
+	 *             and {@link #writeCharacterSeperator(StringBuilder)}.
 	 */
+	@Deprecated
 	protected final StringBuilder text = new StringBuilder();
 
 	/**
 	 * Creates a new encoder.
 	 */
 	protected ArabicEncoderBase() {
-		encodingTable = null;
+		this(null);
 	}
 
 	/**
@@ -86,83 +107,263 @@ public abstract class ArabicEncoderBase implements ArabicEncoder {
 	 */
 	protected ArabicEncoderBase(EncodingTableBase encodingTable) {
 		this.encodingTable = encodingTable;
+
+		// Create an empty lookup table for no options, and for each option.
+		int size = EncodingOptions.values().length + 1;
+		fragmentTables = new AtomicReferenceArray<FragmentTable>(size);
+		for (int i = 0; i < size; i++) {
+			fragmentTables.set(i, new FragmentTable());
+		}
 	}
 
 	public String encode(byte[] buffer, int offset, int characterCount,
 			EncodingOptions options) {
 
+		// Encode then return text.
+		StringBuilder text = new StringBuilder();
+		encode(buffer, offset, characterCount, options, text);
+		return text.toString();
+	}
+
+	public void encode(byte[] buffer, int offset, int characterCount,
+			EncodingOptions options, Appendable output) {
+
 		// Initiate.
-		this.options = options;
+		int tableIndex = options != null ? options.ordinal() + 1 : 0;
+		String seperator = getSeperator();
+
+		// Write each character's output directly, without an intermediate
+		// string.
+		try {
+			for (int i = 0; i < characterCount; i++) {
+				if (i > 0) {
+					output.append(seperator);
+				}
+				output.append(getFragment(tableIndex, buffer, offset, options));
+				offset += ByteFormat.CHARACTER_WIDTH;
+			}
+		} catch (IOException exception) {
+			throw new JQuranTreeException(Errors.ENCODING_WRITE_FAILED,
+					exception);
+		}
+	}
 
-		// Encode each Arabic character.
+	public void encodeUtf8(byte[] buffer, int offset, int characterCount,
+			EncodingOptions options, ByteBuffer output) {
+
+		// Initiate.
+		int tableIndex = options != null ? options.ordinal() + 1 : 0;
+		String seperator = getSeperator();
+
+		// Check capacity first, so that a partial character or token is never
+		// written.
+		int byteCount = characterCount > 0 ? getUtf8Length(seperator)
+				* (characterCount - 1) : 0;
 		for (int i = 0; i < characterCount; i++) {
+			byteCount += getUtf8Length(getFragment(tableIndex, buffer, offset
+					+ i * ByteFormat.CHARACTER_WIDTH, options));
+		}
+		if (byteCount > output.remaining()) {
+			throw new BufferOverflowException();
+		}
 
-			// Seperator.
+		// Write each character's output as UTF-8.
+		for (int i = 0; i < characterCount; i++) {
 			if (i > 0) {
-				writeCharacterSeperator();
+				writeUtf8(seperator, output);
 			}
-
-			// Encode character.
-			encodeCharacter(buffer, offset);
+			writeUtf8(getFragment(tableIndex, buffer, offset, options), output);
 			offset += ByteFormat.CHARACTER_WIDTH;
 		}
+	}
 
-		// Return text.
-		return text.toString();
+	private String getFragment(int tableIndex, byte[] buffer, int offset,
+			EncodingOptions options) {
+
+		// Look up the character's output.
+		int code = (buffer[offset] & 0xFF) << 16
+				| (buffer[offset + 1] & 0xFF) << 8
+				| (buffer[offset + 2] & 0xFF);
+		String fragment = fragmentTables.get(tableIndex).get(code);
+		if (fragment == null) {
+			fragment = addFragment(tableIndex, code, buffer, offset, options);
+		}
+		return fragment;
+	}
+
+	private static int getUtf8Length(String text) {
+
+		// Encoding tables only use characters in the basic multilingual plane,
+		// so surrogate pairs do not occur.
+		int size = text.length();
+		int byteCount = 0;
+		for (int i = 0; i < size; i++) {
+			char ch = text.charAt(i);
+			byteCount += ch < 0x80 ? 1 : (ch < 0x800 ? 2 : 3);
+		}
+		return byteCount;
+	}
+
+	private static void writeUtf8(String text, ByteBuffer output) {
+		int size = text.length();
+		for (int i = 0; i < size; i++) {
+			char ch = text.charAt(i);
+			if (ch < 0x80) {
+				output.put((byte) ch);
+			} else if (ch < 0x800) {
+				output.put((byte) (0xC0 | ch >> 6));
+				output.put((byte) (0x80 | ch & 0x3F));
+			} else {
+				output.put((byte) (0xE0 | ch >> 12));
+				output.put((byte) (0x80 | ch >> 6 & 0x3F));
+				output.put((byte) (0x80 | ch & 0x3F));
+			}
+		}
+	}
+
+	private String getSeperator() {
+		String seperator = this.seperator;
+		if (seperator == null) {
+			seperator = createSeperator();
+		}
+		return seperator;
+	}
+
+	private synchronized String createSeperator() {
+
+		// Write the seperator once, then cache it.
+		if (seperator == null) {
+			StringBuilder text = new StringBuilder();
+			writeCharacterSeperator(text);
+			seperator = text.toString();
+		}
+		return seperator;
+	}
+
+	private synchronized String addFragment(int tableIndex, int code,
+			byte[] buffer, int offset, EncodingOptions options) {
+
+		// Check that another thread has not already added the code.
+		FragmentTable table = fragmentTables.get(tableIndex);
+		String fragment = table.get(code);
+		if (fragment == null) {
+
+			// Encode the character, then add to a new copy of the table.
+			StringBuilder text = new StringBuilder();
+			encodeCharacter(text, buffer, offset, options);
+			fragment = text.toString();
+			fragmentTables.set(tableIndex, table.add(code, fragment));
+		}
+
+		// Return the character's output.
+		return fragment;
 	}
 
 	/**
 	 * Overriden by derived encoders to write a seperator between each
-	 * {@link org.jqurantree.arabic.ArabicCharacter}.
+	 * {@link org.jqurantree.arabic.ArabicCharacter}. This is called once, and
+	 * the output is cached, so derived encoders should always write the same
+	 * seperator. Since encoders may be used by multiple threads, the
+	 * <code>StringBuilder</code> should not be stored.
+	 * <p>
+	 * By default, this calls the deprecated {@link #writeCharacterSeperator()}
+	 * method.
 	 * 
+	 * @param text
+	 *            a <code>string</code> buffer used to hold the encoder's plain
+	 *            text output
 	 */
+	protected void writeCharacterSeperator(StringBuilder text) {
+
+		// Call the deprecated method, which writes to the text field.
+		this.text.setLength(0);
+		writeCharacterSeperator();
+		text.append(this.text);
+	}
+
+	/**
+	 * Overriden by derived encoders to write a seperator between each
+	 * {@link org.jqurantree.arabic.ArabicCharacter} to the protected
+	 * <code>text</code> field.
+	 * 
+	 * @deprecated override {@link #writeCharacterSeperator(StringBuilder)}
+	 *             instead.
+	 */
+	@Deprecated
 	protected void writeCharacterSeperator() {
 	}
 
 	/**
 	 * Encodes a single {@link org.jqurantree.arabic.ArabicCharacter} in the
-	 * internal {@link org.jqurantree.arabic.ByteFormat}.
+	 * internal {@link org.jqurantree.arabic.ByteFormat}. This is called once
+	 * for each distinct character and options value, and the output is cached,
+	 * so derived encoders that override this method should always write the
+	 * same output for the same character. Since encoders may be used by
+	 * multiple threads, the <code>StringBuilder</code> should not be stored.
+	 * <p>
+	 * By default, this calls the deprecated
+	 * {@link #encodeCharacter(byte[], int)} method.
+	 * 
+	 * @param text
+	 *            a <code>string</code> buffer used to hold the encoder's plain
+	 *            text output
+	 * @param buffer
+	 *            the <code>byte[]</code> buffer holding the character
+	 * @param offset
+	 *            the offset of the character within the buffer
+	 * @param options
+	 *            the encoding options, or <code>null</code> for none
+	 */
+	protected void encodeCharacter(StringBuilder text, byte[] buffer,
+			int offset, EncodingOptions options) {
+
+		// Call the deprecated method, which writes to the text field.
+		this.options = options;
+		this.text.setLength(0);
+		encodeCharacter(buffer, offset);
+		text.append(this.text);
+	}
+
+	/**
+	 * Encodes a single {@link org.jqurantree.arabic.ArabicCharacter} in the
+	 * internal {@link org.jqurantree.arabic.ByteFormat} to the protected
+	 * <code>text</code> field, using table-driven encoding.
 	 * 
 	 * @param buffer
 	 *            the <code>byte[]</code> buffer holding the character
 	 * @param offset
 	 *            the offset of the character within the buffer
+	 * 
+	 * @deprecated override
+	 *             {@link #encodeCharacter(StringBuilder, byte[], int, EncodingOptions)}
+	 *             instead.
 	 */
+	@Deprecated
 	protected void encodeCharacter(byte[] buffer, int offset) {
+		writeCharacter(text, buffer, offset, options);
+	}
 
-		// Initiate.
-		this.buffer = buffer;
-		this.offset = offset;
+	private void writeCharacter(StringBuilder text, byte[] buffer, int offset,
+			EncodingOptions options) {
 
 		// Whitespace?
-		value = buffer[offset];
+		byte value = buffer[offset];
 		if (value == ByteFormat.WHITESPACE) {
 
 			// Write whitespace.
 			text.append(' ');
-
-		} else {
-
-			// Write character.
-			text.append(getCharacter());
-
-			// Write diacritics.
-			writeDiacritics();
+			return;
 		}
-	}
-
-	private char getCharacter() {
 
 		// Initiate.
 		CharacterType characterType = CharacterType.valueOf(value);
 		UnicodeType unicodeType = null;
-		isMaddah = ByteFormat.isMaddah(buffer, offset);
-		isHamzaAbove = ByteFormat.isHamzaAbove(buffer, offset);
+		boolean isMaddah = ByteFormat.isMaddah(buffer, offset);
+		boolean isHamzaAbove = ByteFormat.isHamzaAbove(buffer, offset);
 
 		// Alif + Maddah
 		if (options == EncodingOptions.CombineAlifWithMaddah
-				&& characterType == CharacterType.Alif
-				&& ByteFormat.isMaddah(buffer, offset)) {
+				&& characterType == CharacterType.Alif && isMaddah) {
 			unicodeType = UnicodeType.AlifWithMaddah;
 			isMaddah = false;
 		}
@@ -204,12 +405,17 @@ public abstract class ArabicEncoderBase implements ArabicEncoder {
 			unicodeType = UnicodeType.AlifWithHamzatWasl;
 		}
 
-		// Return character.
-		return unicodeType != null ? encodingTable.getCharacter(unicodeType)
-				: encodingTable.getCharacter(characterType);
+		// Write character.
+		text.append(unicodeType != null ? encodingTable
+				.getCharacter(unicodeType) : encodingTable
+				.getCharacter(characterType));
+
+		// Write diacritics.
+		writeDiacritics(text, buffer, offset, isHamzaAbove, isMaddah);
 	}
 
-	private void writeDiacritics() {
+	private void writeDiacritics(StringBuilder text, byte[] buffer,
+			int offset, boolean isHamzaAbove, boolean isMaddah) {
 
 		// Hamza above.
 		if (isHamzaAbove) {
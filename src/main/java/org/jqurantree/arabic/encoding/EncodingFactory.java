@@ -33,11 +33,20 @@ import org.jqurantree.core.error.JQuranTreeException;
  * {@link org.jqurantree.arabic.encoding.ArabicDecoder} instances. This class is
  * used by the {@link ArabicText#toString(EncodingType)} and
  * {@link ArabicText#fromEncoding(String, EncodingType)} methods.
+ * <p>
+ * Encoders and decoders are thread-safe, so the factory creates a single
+ * instance for each encoding type, which is shared by all callers.
  * 
  * @author Kais Dukes
  */
 public class EncodingFactory {
 
+	private static final ArabicEncoder simpleEncoder = new SimpleEncoder();
+	private static final ArabicEncoder unicodeEncoder = new UnicodeEncoder();
+	private static final ArabicEncoder buckwalterEncoder = new BuckwalterEncoder();
+	private static final ArabicDecoder unicodeDecoder = new UnicodeDecoder();
+	private static final ArabicDecoder buckwalterDecoder = new BuckwalterDecoder();
+
 	static {
 
 		// Code coverage.
@@ -48,28 +57,28 @@ public class EncodingFactory {
 	}
 
 	/**
-	 * Gets a new <code>ArabicEncoder</code> instance for the specified encoding
-	 * scheme.
+	 * Gets the shared <code>ArabicEncoder</code> instance for the specified
+	 * encoding scheme.
 	 * 
 	 * @param encodingType
 	 *            the encoding scheme to use
-	 * @return a new <code>ArabicEncoder</code> instance
+	 * @return a thread-safe <code>ArabicEncoder</code> instance
 	 */
 	public static ArabicEncoder getEncoder(EncodingType encodingType) {
 
 		// Initiate.
 		ArabicEncoder encoder;
 
-		// Create an encoder for the encoding type.
+		// Get the encoder for the encoding type.
 		switch (encodingType) {
 		case Simple:
-			encoder = new SimpleEncoder();
+			encoder = simpleEncoder;
 			break;
 		case Unicode:
-			encoder = new UnicodeEncoder();
+			encoder = unicodeEncoder;
 			break;
 		case Buckwalter:
-			encoder = new BuckwalterEncoder();
+			encoder = buckwalterEncoder;
 			break;
 		default:
 			throw new JQuranTreeException(Errors.INVALID_ENCODING_TYPE);
@@ -80,26 +89,26 @@ public class EncodingFactory {
 	}
 
 	/**
-	 * Gets a new <code>ArabicDecoder</code> instance for the specified encoding
-	 * scheme.
+	 * Gets the shared <code>ArabicDecoder</code> instance for the specified
+	 * encoding scheme.
 	 * 
 	 * @param encodingType
 	 *            the encoding scheme to use
 	 * 
-	 * @return a new <code>ArabicDecoder</code> instance
+	 * @return a thread-safe <code>ArabicDecoder</code> instance
 	 */
 	public static ArabicDecoder getDecoder(EncodingType encodingType) {
 
 		// Initiate.
 		ArabicDecoder decoder;
 
-		// Create a decoder for the encoding type.
+		// Get the decoder for the encoding type.
 		switch (encodingType) {
 		case Unicode:
-			decoder = new UnicodeDecoder();
+			decoder = unicodeDecoder;
 			break;
 		case Buckwalter:
-			decoder = new BuckwalterDecoder();
+			decoder = buckwalterDecoder;
 			break;
 		default:
 			throw new JQuranTreeException(Errors.INVALID_ENCODING_TYPE);
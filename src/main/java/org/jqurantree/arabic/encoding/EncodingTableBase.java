@@ -18,6 +18,7 @@
 
 package org.jqurantree.arabic.encoding;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -29,11 +30,22 @@ import org.jqurantree.arabic.encoding.unicode.UnicodeType;
  * <code>EncodingTableBase</code> provides a common implementation for tables
  * used by table-driven encoders and decoders of
  * {@link org.jqurantree.arabic.ArabicText}.
+ * <p>
+ * Items are held in dense arrays indexed by character for the ASCII range,
+ * used by Buckwalter encoding, and for the Arabic Unicode block (U+0600 to
+ * U+06FF). Any other characters are looked up in a fallback map.
  * 
  * @author Kais Dukes
  */
 public abstract class EncodingTableBase {
 
+	private static final int ASCII_SIZE = 0x80;
+	private static final int ARABIC_BLOCK_START = 0x0600;
+	private static final int ARABIC_BLOCK_SIZE = 0x100;
+	private final EncodingTableItem[] asciiItems = new EncodingTableItem[ASCII_SIZE];
+	private final EncodingTableItem[] arabicItems = new EncodingTableItem[ARABIC_BLOCK_SIZE];
+	private final int[] asciiCodes = new int[ASCII_SIZE];
+	private final int[] arabicCodes = new int[ARABIC_BLOCK_SIZE];
 	private final Map<Character, EncodingTableItem> unicodeMap = new HashMap<Character, EncodingTableItem>();
 	private final char[] characterList = new char[CharacterType.values.length];
 	private final char[] unicodeList = new char[UnicodeType.values().length];
@@ -42,6 +54,10 @@ public abstract class EncodingTableBase {
 	 * Creates a new encoding table instance.
 	 */
 	protected EncodingTableBase() {
+
+		// Characters not in the table decode to whitespace.
+		Arrays.fill(asciiCodes, EncodingTableItem.WHITESPACE_CODE);
+		Arrays.fill(arabicCodes, EncodingTableItem.WHITESPACE_CODE);
 	}
 
 	/**
@@ -53,9 +69,28 @@ public abstract class EncodingTableBase {
 	 * @return the encoding table item
 	 */
 	public EncodingTableItem getItem(char unicode) {
+		if (unicode < ASCII_SIZE) {
+			return asciiItems[unicode];
+		}
+		int index = unicode - ARABIC_BLOCK_START;
+		if (index >= 0 && index < ARABIC_BLOCK_SIZE) {
+			return arabicItems[index];
+		}
 		return unicodeMap.get(unicode);
 	}
 
+	final int getCode(char unicode) {
+		if (unicode < ASCII_SIZE) {
+			return asciiCodes[unicode];
+		}
+		int index = unicode - ARABIC_BLOCK_START;
+		if (index >= 0 && index < ARABIC_BLOCK_SIZE) {
+			return arabicCodes[index];
+		}
+		EncodingTableItem item = unicodeMap.get(unicode);
+		return item != null ? item.getCode() : EncodingTableItem.WHITESPACE_CODE;
+	}
+
 	/**
 	 * Gets an output character in the table by Arabic character type.
 	 * 
@@ -137,7 +172,16 @@ public abstract class EncodingTableBase {
 				diacriticType);
 
 		// Unicode --> item
-		unicodeMap.put(ch, item);
+		if (ch < ASCII_SIZE) {
+			asciiItems[ch] = item;
+			asciiCodes[ch] = item.getCode();
+		} else if (ch >= ARABIC_BLOCK_START
+				&& ch < ARABIC_BLOCK_START + ARABIC_BLOCK_SIZE) {
+			arabicItems[ch - ARABIC_BLOCK_START] = item;
+			arabicCodes[ch - ARABIC_BLOCK_START] = item.getCode();
+		} else {
+			unicodeMap.put(ch, item);
+		}
 
 		// Character type --> Unicode
 		if (characterType != null && diacriticType == null) {
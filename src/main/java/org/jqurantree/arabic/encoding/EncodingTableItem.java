@@ -18,6 +18,7 @@
 
 package org.jqurantree.arabic.encoding;
 
+import org.jqurantree.arabic.ByteFormat;
 import org.jqurantree.arabic.CharacterType;
 import org.jqurantree.arabic.DiacriticType;
 
@@ -27,18 +28,41 @@ import org.jqurantree.arabic.DiacriticType;
  * table-driven encoders to map a character to a
  * {@link org.jqurantree.arabic.CharacterType} or a
  * {@link org.jqurantree.arabic.DiacriticType}.
+ * <p>
+ * Each item also holds a packed code used for bulk decoding. The low 24 bits
+ * hold the 3 bytes of the item in the internal
+ * {@link org.jqurantree.arabic.ByteFormat}. Bit 24 is set if the item starts a
+ * new character. Otherwise the item is a diacritic and its bit masks are
+ * applied to the previous character.
  * 
  * @author Kais Dukes
  */
 class EncodingTableItem {
 
+	static final int CHARACTER_FLAG = 0x1000000;
+	static final int WHITESPACE_CODE = CHARACTER_FLAG
+			| (ByteFormat.WHITESPACE & 0xFF) << 16;
+
 	private final CharacterType characterType;
 	private final DiacriticType diacriticType;
+	private final int code;
 
 	public EncodingTableItem(CharacterType characterType,
 			DiacriticType diacriticType) {
 		this.characterType = characterType;
 		this.diacriticType = diacriticType;
+
+		// Pack the character and diacritic into the byte format.
+		byte[] buffer = new byte[ByteFormat.CHARACTER_WIDTH];
+		if (characterType != null) {
+			buffer[0] = (byte) characterType.ordinal();
+		}
+		if (diacriticType != null) {
+			ByteFormat.setDiacritic(buffer, 0, diacriticType);
+		}
+		code = (characterType != null ? CHARACTER_FLAG : 0)
+				| (buffer[0] & 0xFF) << 16 | (buffer[1] & 0xFF) << 8
+				| (buffer[2] & 0xFF);
 	}
 
 	public CharacterType getCharacterType() {
@@ -48,4 +72,8 @@ class EncodingTableItem {
 	public DiacriticType getDiacriticType() {
 		return diacriticType;
 	}
+
+	public int getCode() {
+		return code;
+	}
 }
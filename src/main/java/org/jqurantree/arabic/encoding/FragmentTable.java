@@ -0,0 +1,90 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.arabic.encoding;
+
+class FragmentTable {
+
+	private static final int INITIAL_CAPACITY = 64;
+	private static final int EMPTY = -1;
+	private final int[] codes;
+	private final String[] fragments;
+	private final int size;
+
+	public FragmentTable() {
+		this(INITIAL_CAPACITY, 0);
+	}
+
+	private FragmentTable(int capacity, int size) {
+		codes = new int[capacity];
+		fragments = new String[capacity];
+		this.size = size;
+		for (int i = 0; i < capacity; i++) {
+			codes[i] = EMPTY;
+		}
+	}
+
+	public String get(int code) {
+
+		// Linear probing.
+		int mask = codes.length - 1;
+		for (int i = getHash(code) & mask;; i = (i + 1) & mask) {
+			int value = codes[i];
+			if (value == code) {
+				return fragments[i];
+			}
+			if (value == EMPTY) {
+				return null;
+			}
+		}
+	}
+
+	public FragmentTable add(int code, String fragment) {
+
+		// Copy into a new table, doubling the capacity if more than half full.
+		int capacity = codes.length;
+		if ((size + 1) * 2 > capacity) {
+			capacity *= 2;
+		}
+		FragmentTable table = new FragmentTable(capacity, size + 1);
+		for (int i = 0; i < codes.length; i++) {
+			if (codes[i] != EMPTY) {
+				table.insert(codes[i], fragments[i]);
+			}
+		}
+		table.insert(code, fragment);
+
+		// Return the new table.
+		return table;
+	}
+
+	private void insert(int code, String fragment) {
+		int mask = codes.length - 1;
+		int i = getHash(code) & mask;
+		while (codes[i] != EMPTY) {
+			i = (i + 1) & mask;
+		}
+		codes[i] = code;
+		fragments[i] = fragment;
+	}
+
+	private static int getHash(int code) {
+		int hash = code * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -22,6 +22,7 @@ import org.jqurantree.arabic.ByteFormat;
 import org.jqurantree.arabic.CharacterType;
 import org.jqurantree.arabic.DiacriticType;
 import org.jqurantree.arabic.encoding.ArabicEncoderBase;
+import org.jqurantree.arabic.encoding.EncodingOptions;
 
 /**
  * Supports encoding {@link org.jqurantree.arabic.ArabicText} into simple
@@ -42,7 +43,8 @@ public class SimpleEncoder extends ArabicEncoderBase {
 	public SimpleEncoder() {
 	}
 
-	protected void encodeCharacter(byte[] buffer, int offset) {
+	protected void encodeCharacter(StringBuilder text, byte[] buffer,
+			int offset, EncodingOptions options) {
 
 		// Whitespace.
 		if (buffer[offset] == ByteFormat.WHITESPACE) {
@@ -75,7 +77,7 @@ public class SimpleEncoder extends ArabicEncoderBase {
 		}
 	}
 
-	protected void writeCharacterSeperator() {
+	protected void writeCharacterSeperator(StringBuilder text) {
 
 		// Seperator.
 		text.append(" | ");
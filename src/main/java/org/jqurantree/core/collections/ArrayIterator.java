@@ -19,6 +19,8 @@
 package org.jqurantree.core.collections;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
  * Supports iterating over an array without modifying the underlying values.
@@ -32,10 +34,30 @@ public class ArrayIterator<T> extends ImmutableIteratorBase<T> implements
 		Iterable<T> {
 
 	private final T[] items;
+	private final int end;
 	private int index;
 
 	public ArrayIterator(T[] items) {
 		this.items = items;
+		end = items != null ? items.length : 0;
+	}
+
+	/**
+	 * Creates an iterator over a range of elements in an array.
+	 * 
+	 * @param items
+	 *            the array
+	 * 
+	 * @param offset
+	 *            the index of the first element in the range
+	 * 
+	 * @param count
+	 *            the number of elements in the range
+	 */
+	public ArrayIterator(T[] items, int offset, int count) {
+		this.items = items;
+		index = offset;
+		end = offset + count;
 	}
 
 	/**
@@ -47,8 +69,19 @@ public class ArrayIterator<T> extends ImmutableIteratorBase<T> implements
 		return this;
 	}
 
+	/**
+	 * Gets a sized and splittable spliterator over the remaining elements.
+	 * 
+	 * @return a <code>Spliterator</code> over the array range
+	 */
+	@Override
+	public Spliterator<T> spliterator() {
+		return Spliterators.spliterator(items, index, end, Spliterator.ORDERED
+				| Spliterator.IMMUTABLE);
+	}
+
 	public boolean hasNext() {
-		return index < items.length;
+		return index < end;
 	}
 
 	public T next() {
@@ -41,7 +41,7 @@ public class Errors {
 	 * @return a positive integer
 	 */
 	public static int getErrorCount() {
-		return 10;
+		return 21;
 	}
 
 	/**
@@ -59,6 +59,16 @@ public class Errors {
 	 */
 	public static final String INVALID_VERSE_NUMBER = "The verse number is out of range.";
 
+	/**
+	 * {@value}
+	 */
+	public static final String INVALID_TOKEN_NUMBER = "The token number is out of range.";
+
+	/**
+	 * {@value}
+	 */
+	public static final String INVALID_ORDINAL = "The ordinal is out of range.";
+
 	/**
 	 * {@value}
 	 */
@@ -69,6 +79,11 @@ public class Errors {
 	 */
 	public static final String INVALID_ENCODING_TYPE = "The specified encoding type is not supported.";
 
+	/**
+	 * {@value}
+	 */
+	public static final String ENCODING_WRITE_FAILED = "Failed to write encoded text.";
+
 	/**
 	 * {@value}
 	 */
@@ -93,4 +108,44 @@ public class Errors {
 	 * {@value}
 	 */
 	public static final String FILE_NOT_FOUND = "The specified file could not be found.";
+
+	/**
+	 * {@value}
+	 */
+	public static final String INVALID_SNAPSHOT = "Failed to read the orthography model snapshot.";
+
+	/**
+	 * {@value}
+	 */
+	public static final String SNAPSHOT_WRITE_FAILED = "Failed to write the orthography model snapshot.";
+
+	/**
+	 * {@value}
+	 */
+	public static final String INVALID_PHRASE_SLOP = "The phrase slop should not be negative.";
+
+	/**
+	 * {@value}
+	 */
+	public static final String INVALID_PAGE = "The offset and limit should not be negative.";
+
+	/**
+	 * {@value}
+	 */
+	public static final String INVALID_EDIT_DISTANCE = "The edit distance should not be negative.";
+
+	/**
+	 * {@value}
+	 */
+	public static final String INVALID_GRAM_LENGTH = "The n-gram length should be between 1 and 5.";
+
+	/**
+	 * {@value}
+	 */
+	public static final String INVALID_PARALLEL_THRESHOLD = "The parallel threshold should be a positive number.";
+
+	/**
+	 * {@value}
+	 */
+	public static final String INVALID_ROW_SIZE = "The number of values should match the number of columns.";
 }
@@ -55,6 +55,19 @@ public class ResourceUtil {
 		return stream;
 	}
 
+	/**
+	 * Determines if an embedded JAR resource exists.
+	 * 
+	 * @param resourcePath
+	 *            the full path and name of the resource, e.g. /foo/bar.txt
+	 * 
+	 * @return <code>true</code> if the resource exists; <code>false</code>
+	 *         otherwise
+	 */
+	public static boolean exists(String resourcePath) {
+		return resourceType.getResource(resourcePath) != null;
+	}
+
 	/**
 	 * Opens an embedded JAR resource, reads the entire content as text, then
 	 * closes the resource.
@@ -19,6 +19,8 @@
 package org.jqurantree.orthography;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 import org.jqurantree.arabic.ArabicText;
 import org.jqurantree.core.collections.ArrayIterator;
@@ -37,32 +39,18 @@ public class Chapter implements Iterable<Verse> {
 	private final Location location;
 	private final ArabicText name;
 	private final ArabicText bismillah;
-	final Verse[] verses;
-	private int tokenCount;
+	final DocumentBuffer documentBuffer;
+	final int verseIndex;
+	private final int verseCount;
 
-	/**
-	 * Creates a new chapter, used by JQuranTree when constructing the
-	 * orthography model.
-	 * 
-	 * @param chapterNumber
-	 *            the chapter's number, between 1 and 114 inclusive
-	 * 
-	 * @param name
-	 *            the chapter's name
-	 * 
-	 * @param bismillah
-	 *            the <i>bismillah</i> phrase preceding the chapter's verses if
-	 *            present; <code>null</code> otherwise
-	 * 
-	 * @param verses
-	 *            an array holding the chapter's verses
-	 */
-	public Chapter(int chapterNumber, ArabicText name, ArabicText bismillah,
-			Verse[] verses) {
+	Chapter(int chapterNumber, ArabicText name, ArabicText bismillah,
+			DocumentBuffer documentBuffer, int verseIndex, int verseCount) {
 		location = new Location(chapterNumber);
 		this.name = name;
-		this.verses = verses;
 		this.bismillah = bismillah;
+		this.documentBuffer = documentBuffer;
+		this.verseIndex = verseIndex;
+		this.verseCount = verseCount;
 	}
 
 	/**
@@ -83,6 +71,15 @@ public class Chapter implements Iterable<Verse> {
 		return location;
 	}
 
+	/**
+	 * Gets the chapter's ordinal, its 0-based position in the document.
+	 * 
+	 * @return the chapter ordinal, between 0 and 113 inclusive
+	 */
+	public int getOrdinal() {
+		return location.getChapterNumber() - 1;
+	}
+
 	/**
 	 * Gets the name of the chapter as <code>ArabicText</code>.
 	 * 
@@ -113,12 +110,12 @@ public class Chapter implements Iterable<Verse> {
 	public Verse getVerse(int verseNumber) {
 
 		// Check that the verse number is valid.
-		if (verseNumber < 1 || verseNumber > verses.length) {
+		if (verseNumber < 1 || verseNumber > verseCount) {
 			throw new JQuranTreeException(Errors.INVALID_VERSE_NUMBER);
 		}
 
 		// Return verse.
-		return verses[verseNumber - 1];
+		return documentBuffer.verses[verseIndex + verseNumber - 1];
 	}
 
 	/**
@@ -139,7 +136,7 @@ public class Chapter implements Iterable<Verse> {
 	 * @return a positive integer
 	 */
 	public int getVerseCount() {
-		return verses.length;
+		return verseCount;
 	}
 
 	/**
@@ -148,20 +145,19 @@ public class Chapter implements Iterable<Verse> {
 	 * @return a positive integer
 	 */
 	public int getTokenCount() {
+		int[] verseTokenIndices = documentBuffer.verseTokenIndices;
+		return verseTokenIndices[verseIndex + verseCount]
+				- verseTokenIndices[verseIndex];
+	}
 
-		// If not already cached, then calculate.
-		if (tokenCount == 0) {
-
-			// Count tokens.
-			int tokenCount = 0;
-			for (Verse verse : verses) {
-				tokenCount += verse.getTokenCount();
-			}
-			this.tokenCount = tokenCount;
-		}
-
-		// Return token count.
-		return tokenCount;
+	/**
+	 * Gets a reusable cursor used to move through all tokens in the chapter,
+	 * without creating a new {@link Token} for each step.
+	 * 
+	 * @return a token cursor, positioned before the first token
+	 */
+	public TokenCursor getTokenCursor() {
+		return new TokenCursor(documentBuffer, verseIndex, verseCount);
 	}
 
 	/**
@@ -170,7 +166,20 @@ public class Chapter implements Iterable<Verse> {
 	 * @return a verse iterator
 	 */
 	public Iterator<Verse> iterator() {
-		return new ArrayIterator<Verse>(verses);
+		return new ArrayIterator<Verse>(documentBuffer.verses, verseIndex,
+				verseCount);
+	}
+
+	/**
+	 * Gets a sized and splittable spliterator over all verses in the chapter.
+	 * 
+	 * @return a verse spliterator
+	 */
+	@Override
+	public Spliterator<Verse> spliterator() {
+		return Spliterators.spliterator(documentBuffer.verses, verseIndex,
+				verseIndex + verseCount, Spliterator.ORDERED
+						| Spliterator.IMMUTABLE | Spliterator.NONNULL);
 	}
 
 	/**
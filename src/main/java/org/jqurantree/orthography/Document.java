@@ -18,8 +18,13 @@
 
 package org.jqurantree.orthography;
 
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 import org.jqurantree.core.collections.ArrayIterator;
 import org.jqurantree.tanzil.TanzilReader;
+import org.jqurantree.tanzil.TanzilSnapshotReader;
 
 /**
  * The top-level class in the orthography model, providing a structured
@@ -33,15 +38,19 @@ public class Document {
 
 	private static final String DOCUMENT_NAME = "The Holy Quran";
 	private static final Chapter[] chapters;
+	private static final DocumentBuffer documentBuffer;
 	static final int CHAPTER_COUNT = 114;
-	private static int verseCount = 0;
-	private static int tokenCount = 0;
 
 	static {
 
-		// Read the chapters.
-		TanzilReader reader = new TanzilReader();
-		chapters = reader.readXml();
+		// Read the chapters from the precompiled snapshot. If the snapshot is
+		// not available, then fall back to reading the Tanzil XML.
+		Chapter[] snapshotChapters = new TanzilSnapshotReader().read();
+		chapters = snapshotChapters != null ? snapshotChapters
+				: new TanzilReader().readXml();
+
+		// The chapters are views over a single document buffer.
+		documentBuffer = chapters[0].documentBuffer;
 
 		// Code coverage.
 		new Document();
@@ -74,20 +83,7 @@ public class Document {
 	 * @return 6236, the number of verses in the Holy Quran
 	 */
 	public static int getVerseCount() {
-
-		// If not already cached, then calculate.
-		if (verseCount == 0) {
-
-			// Count verses.
-			int verseCount = 0;
-			for (Chapter chapter : chapters) {
-				verseCount += chapter.getVerseCount();
-			}
-			Document.verseCount = verseCount;
-		}
-
-		// Return verse count.
-		return verseCount;
+		return documentBuffer.verses.length;
 	}
 
 	/**
@@ -96,20 +92,7 @@ public class Document {
 	 * @return the total number of tokens in the Holy Quran
 	 */
 	public static int getTokenCount() {
-
-		// If not already cached, then calculate.
-		if (tokenCount == 0) {
-
-			// Count tokens.
-			int tokenCount = 0;
-			for (Chapter chapter : chapters) {
-				tokenCount += chapter.getTokenCount();
-			}
-			Document.tokenCount = tokenCount;
-		}
-
-		// Return token count.
-		return tokenCount;
+		return documentBuffer.getTokenCount();
 	}
 
 	/**
@@ -162,7 +145,8 @@ public class Document {
 	 * @return the specified verse
 	 */
 	public static Verse getVerse(int chapterNumber, int verseNumber) {
-		return getChapter(chapterNumber).getVerse(verseNumber);
+		return documentBuffer.verses[documentBuffer.getVerseIndex(
+				chapterNumber, verseNumber)];
 	}
 
 	/**
@@ -177,6 +161,56 @@ public class Document {
 		return getVerse(location.getChapterNumber(), location.getVerseNumber());
 	}
 
+	/**
+	 * Gets a sequential stream of all verses in the document. The stream is
+	 * sized and splits by verse ordinal, so may be made parallel using
+	 * <code>parallel()</code>.
+	 * 
+	 * @return a verse stream
+	 */
+	public static Stream<Verse> verseStream() {
+		return Arrays.stream(documentBuffer.verses);
+	}
+
+	/**
+	 * Gets a verse in the document by ordinal. Verses are numbered
+	 * sequentially from 0 across all chapters.
+	 * 
+	 * @param ordinal
+	 *            the verse ordinal, between 0 and 6235 inclusive
+	 * 
+	 * @return the specified verse
+	 */
+	public static Verse getVerseByOrdinal(int ordinal) {
+		return documentBuffer.getVerse(ordinal);
+	}
+
+	/**
+	 * Gets the ordinal of a verse in the document by {@link Location}
+	 * reference.
+	 * 
+	 * @param location
+	 *            the verse's location
+	 * 
+	 * @return the verse ordinal, between 0 and 6235 inclusive
+	 */
+	public static int getVerseOrdinal(Location location) {
+		return documentBuffer.getVerseIndex(location.getChapterNumber(),
+				location.getVerseNumber());
+	}
+
+	/**
+	 * Gets the location of a verse in the document by ordinal.
+	 * 
+	 * @param ordinal
+	 *            the verse ordinal, between 0 and 6235 inclusive
+	 * 
+	 * @return a location referencing the verse
+	 */
+	public static Location getVerseLocation(int ordinal) {
+		return documentBuffer.getVerse(ordinal).getLocation();
+	}
+
 	/**
 	 * Gets an iterator used to enumerate over all verses in the document.
 	 * </code>
@@ -184,7 +218,7 @@ public class Document {
 	 * @return a verse iterator
 	 */
 	public static Iterable<Verse> getVerses() {
-		return new DocumentVerseIterator(chapters);
+		return new ArrayIterator<Verse>(documentBuffer.verses);
 	}
 
 	/**
@@ -203,8 +237,8 @@ public class Document {
 	 */
 	public static Token getToken(int chapterNumber, int verseNumber,
 			int tokenNumber) {
-		return getChapter(chapterNumber).getVerse(verseNumber).getToken(
-				tokenNumber);
+		return documentBuffer.getToken(documentBuffer.getTokenIndex(
+				chapterNumber, verseNumber, tokenNumber));
 	}
 
 	/**
@@ -220,6 +254,16 @@ public class Document {
 				location.getTokenNumber());
 	}
 
+	/**
+	 * Gets a reusable cursor used to move through all tokens in the document,
+	 * without creating a new {@link Token} for each step.
+	 * 
+	 * @return a token cursor, positioned before the first token
+	 */
+	public static TokenCursor getTokenCursor() {
+		return new TokenCursor(documentBuffer, 0, documentBuffer.verses.length);
+	}
+
 	/**
 	 * Gets an iterator used to enumerate over all tokens in the document.
 	 * </code>
@@ -227,6 +271,74 @@ public class Document {
 	 * @return a token iterator
 	 */
 	public static Iterable<Token> getTokens() {
-		return new DocumentTokenIterator(chapters);
+		return new DocumentTokenIterator(documentBuffer);
+	}
+
+	/**
+	 * Gets a sequential stream of all tokens in the document. The stream is
+	 * sized and splits by token ordinal, so may be made parallel using
+	 * <code>parallel()</code>.
+	 * 
+	 * @return a token stream
+	 */
+	public static Stream<Token> tokenStream() {
+		return StreamSupport.stream(new TokenSpliterator(documentBuffer, 0,
+				documentBuffer.getTokenCount()), false);
+	}
+
+	/**
+	 * Gets a token in the document by ordinal. Tokens are numbered
+	 * sequentially from 0 across all chapters and verses.
+	 * 
+	 * @param ordinal
+	 *            the token ordinal, from 0 to one less than the number of
+	 *            tokens in the document
+	 * 
+	 * @return the specified token
+	 */
+	public static Token getTokenByOrdinal(int ordinal) {
+		return documentBuffer.getToken(ordinal);
+	}
+
+	/**
+	 * Gets the ordinal of a token in the document by {@link Location}
+	 * reference.
+	 * 
+	 * @param location
+	 *            the token's location
+	 * 
+	 * @return the token ordinal, from 0 to one less than the number of tokens
+	 *         in the document
+	 */
+	public static int getTokenOrdinal(Location location) {
+		return documentBuffer.getTokenIndex(location.getChapterNumber(),
+				location.getVerseNumber(), location.getTokenNumber());
+	}
+
+	/**
+	 * Gets the location of a token in the document by ordinal.
+	 * 
+	 * @param ordinal
+	 *            the token ordinal, from 0 to one less than the number of
+	 *            tokens in the document
+	 * 
+	 * @return a location referencing the token
+	 */
+	public static Location getTokenLocation(int ordinal) {
+		return documentBuffer.getTokenLocation(ordinal);
+	}
+
+	/**
+	 * Gets the ordinal of the verse containing a token, without creating any
+	 * objects.
+	 * 
+	 * @param ordinal
+	 *            the token ordinal, from 0 to one less than the number of
+	 *            tokens in the document
+	 * 
+	 * @return the verse ordinal, between 0 and 6235 inclusive
+	 */
+	public static int getTokenVerseOrdinal(int ordinal) {
+		return documentBuffer.tokenVerseIndices[ordinal];
 	}
 }
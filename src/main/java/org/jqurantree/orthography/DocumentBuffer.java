@@ -0,0 +1,210 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.orthography;
+
+import org.jqurantree.arabic.ArabicText;
+import org.jqurantree.arabic.ByteFormat;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
+
+/**
+ * Used internally to hold the character data of the orthography model. The
+ * text of every verse in the document is packed into a single contiguous
+ * <code>byte[]</code> buffer in the internal {@link ByteFormat}, with a single
+ * whitespace delimiter between each verse. Chapters, verses and tokens are
+ * lightweight views over this buffer, located using a global table of token
+ * offsets and a table of the index of the first token in each verse.
+ * <p>
+ * The index of each token, verse and chapter in these tables is its ordinal.
+ * Ordinals are dense and 0-based, so that tokens are numbered from 0 to one
+ * less than the number of tokens in the document.
+ * 
+ * @author Kais Dukes
+ */
+public class DocumentBuffer {
+
+	final byte[] buffer;
+	final int[] tokenOffsets;
+	final int[] verseTokenIndices;
+	final short[] tokenVerseIndices;
+	final Verse[] verses;
+	final Chapter[] chapters;
+
+	/**
+	 * Creates a new document buffer, used by JQuranTree when constructing the
+	 * orthography model.
+	 * 
+	 * @param buffer
+	 *            the character data of every verse, with a single whitespace
+	 *            delimiter between each verse
+	 * 
+	 * @param tokenOffsets
+	 *            the offset of each token in the buffer, followed by a final
+	 *            entry one character width past the end of the buffer
+	 * 
+	 * @param verseTokenCounts
+	 *            the number of tokens in each verse
+	 * 
+	 * @param chapterVerseCounts
+	 *            the number of verses in each chapter
+	 * 
+	 * @param chapterNames
+	 *            the name of each chapter
+	 * 
+	 * @param bismillahs
+	 *            the <i>bismillah</i> phrase preceding each chapter's verses,
+	 *            or <code>null</code> for chapters without a <i>bismillah</i>
+	 */
+	public DocumentBuffer(byte[] buffer, int[] tokenOffsets,
+			int[] verseTokenCounts, int[] chapterVerseCounts,
+			ArabicText[] chapterNames, ArabicText[] bismillahs) {
+		this.buffer = buffer;
+		this.tokenOffsets = tokenOffsets;
+
+		// Get the index of the first token in each verse.
+		int verseCount = verseTokenCounts.length;
+		verseTokenIndices = new int[verseCount + 1];
+		for (int i = 0; i < verseCount; i++) {
+			verseTokenIndices[i + 1] = verseTokenIndices[i]
+					+ verseTokenCounts[i];
+		}
+
+		// Get the index of the verse containing each token. There are fewer
+		// than 32768 verses, so a short is sufficient.
+		tokenVerseIndices = new short[verseTokenIndices[verseCount]];
+		for (int i = 0; i < verseCount; i++) {
+			for (int j = verseTokenIndices[i]; j < verseTokenIndices[i + 1]; j++) {
+				tokenVerseIndices[j] = (short) i;
+			}
+		}
+
+		// Create the verses and chapters.
+		int chapterCount = chapterVerseCounts.length;
+		verses = new Verse[verseCount];
+		chapters = new Chapter[chapterCount];
+		int verseIndex = 0;
+		for (int i = 0; i < chapterCount; i++) {
+			int size = chapterVerseCounts[i];
+			for (int j = 0; j < size; j++) {
+				verses[verseIndex + j] = new Verse(i + 1, j + 1, this,
+						verseIndex + j);
+			}
+			chapters[i] = new Chapter(i + 1, chapterNames[i], bismillahs[i],
+					this, verseIndex, size);
+			verseIndex += size;
+		}
+	}
+
+	/**
+	 * Gets the chapters of the orthography model.
+	 * 
+	 * @return a <code>Chapter[]</code> array
+	 */
+	public Chapter[] getChapters() {
+		return chapters;
+	}
+
+	int getTokenCount() {
+		return tokenOffsets.length - 1;
+	}
+
+	int getVerseIndex(int chapterNumber, int verseNumber) {
+
+		// Validate chapter number.
+		Location.validateChapterNumber(chapterNumber);
+
+		// Check that the verse number is valid.
+		Chapter chapter = chapters[chapterNumber - 1];
+		if (verseNumber < 1 || verseNumber > chapter.getVerseCount()) {
+			throw new JQuranTreeException(Errors.INVALID_VERSE_NUMBER);
+		}
+
+		// Return verse index.
+		return chapter.verseIndex + verseNumber - 1;
+	}
+
+	int getTokenIndex(int chapterNumber, int verseNumber, int tokenNumber) {
+
+		// Check that the token number is valid.
+		int verseIndex = getVerseIndex(chapterNumber, verseNumber);
+		int tokenIndex = verseTokenIndices[verseIndex] + tokenNumber - 1;
+		if (tokenNumber < 1 || tokenIndex >= verseTokenIndices[verseIndex + 1]) {
+			throw new JQuranTreeException(Errors.INVALID_TOKEN_NUMBER);
+		}
+
+		// Return token index.
+		return tokenIndex;
+	}
+
+	Verse getVerse(int verseIndex) {
+
+		// Check that the ordinal is valid.
+		if (verseIndex < 0 || verseIndex >= verses.length) {
+			throw new JQuranTreeException(Errors.INVALID_ORDINAL);
+		}
+
+		// Return verse.
+		return verses[verseIndex];
+	}
+
+	Token getToken(int tokenIndex) {
+		return getToken(getTokenVerse(tokenIndex), tokenIndex);
+	}
+
+	Location getTokenLocation(int tokenIndex) {
+		Verse verse = getTokenVerse(tokenIndex);
+		return new Location(verse.getChapterNumber(), verse.getVerseNumber(),
+				tokenIndex - verseTokenIndices[verse.verseIndex] + 1);
+	}
+
+	private Verse getTokenVerse(int tokenIndex) {
+
+		// Check that the ordinal is valid.
+		if (tokenIndex < 0 || tokenIndex >= getTokenCount()) {
+			throw new JQuranTreeException(Errors.INVALID_ORDINAL);
+		}
+
+		// Return the verse containing the token.
+		return verses[tokenVerseIndices[tokenIndex]];
+	}
+
+	int getVerseOffset(int verseIndex) {
+		return tokenOffsets[verseTokenIndices[verseIndex]];
+	}
+
+	int getVerseLength(int verseIndex) {
+
+		// The verse ends before the whitespace delimiter following its last
+		// token.
+		int end = tokenOffsets[verseTokenIndices[verseIndex + 1]]
+				- ByteFormat.CHARACTER_WIDTH;
+		return (end - getVerseOffset(verseIndex)) / ByteFormat.CHARACTER_WIDTH;
+	}
+
+	Token getToken(Verse verse, int tokenIndex) {
+
+		// Each token is followed by a single whitespace delimiter.
+		int offset = tokenOffsets[tokenIndex];
+		int characterCount = (tokenOffsets[tokenIndex + 1] - offset)
+				/ ByteFormat.CHARACTER_WIDTH - 1;
+		int tokenNumber = tokenIndex - verseTokenIndices[verse.verseIndex] + 1;
+		return new Token(verse.getChapterNumber(), verse.getVerseNumber(),
+				tokenNumber, tokenIndex, buffer, offset, characterCount);
+	}
+}
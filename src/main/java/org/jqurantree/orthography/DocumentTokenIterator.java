@@ -19,50 +19,47 @@
 package org.jqurantree.orthography;
 
 import java.util.Iterator;
+import java.util.Spliterator;
 
 import org.jqurantree.core.collections.ImmutableIteratorBase;
 
 class DocumentTokenIterator extends ImmutableIteratorBase<Token> implements
 		Iterable<Token> {
 
-	private Chapter[] chapters;
-	private Verse[] verses;
-	private Verse verse;
-	private int chapterNumber;
-	private int verseNumber;
-	private int tokenNumber;
+	private final DocumentBuffer documentBuffer;
+	private final int[] verseTokenIndices;
+	private final int tokenCount;
+	private int tokenIndex;
+	private int verseIndex;
 
-	public DocumentTokenIterator(Chapter[] chapters) {
-		this.chapters = chapters;
+	public DocumentTokenIterator(DocumentBuffer documentBuffer) {
+		this.documentBuffer = documentBuffer;
+		verseTokenIndices = documentBuffer.verseTokenIndices;
+		tokenCount = documentBuffer.getTokenCount();
 	}
 
 	public Iterator<Token> iterator() {
 		return this;
 	}
 
+	@Override
+	public Spliterator<Token> spliterator() {
+		return new TokenSpliterator(documentBuffer, tokenIndex, tokenCount);
+	}
+
 	public boolean hasNext() {
-		return chapterNumber < Document.CHAPTER_COUNT
-				|| verseNumber < verses.length
-				|| tokenNumber < verse.getTokenCount();
+		return tokenIndex < tokenCount;
 	}
 
 	public Token next() {
 
-		// Increment token number.
-		if (verse == null || ++tokenNumber > verse.getTokenCount()) {
-
-			// Increment verse number.
-			if (verses == null || ++verseNumber > verses.length) {
-
-				// Increment chapter number.
-				verses = chapters[++chapterNumber - 1].verses;
-				verseNumber = 1;
-			}
-			verse = verses[verseNumber - 1];
-			tokenNumber = 1;
+		// Move to the verse containing the next token.
+		while (tokenIndex >= verseTokenIndices[verseIndex + 1]) {
+			verseIndex++;
 		}
 
 		// Return token.
-		return verse.getToken(tokenNumber);
+		return documentBuffer.getToken(documentBuffer.verses[verseIndex],
+				tokenIndex++);
 	}
 }
@@ -28,20 +28,33 @@ import org.jqurantree.core.error.JQuranTreeException;
  * element in the orthography model has a <code>getLocation()</code> accessor
  * which returns a <code>Location</code> object that specifies the current
  * location.
+ * <p>
+ * Locations have value semantics, and may be used as keys in hash-based
+ * collections. Locations are ordered by chapter, verse and then token number.
+ * A location may also be packed into a single <code>int</code> using the
+ * static {@link #encode(int, int, int)} method, which is useful when storing
+ * large numbers of locations. The chapter number is held in the top 8 bits,
+ * followed by 12 bits for the verse number and 12 bits for the token number, so
+ * that encoded locations have the same ordering as <code>Location</code>
+ * objects.
  * 
  * @author Kais Dukes
  */
-public class Location {
+public class Location implements Comparable<Location> {
 
-	private int chapterNumber;
-	private int verseNumber;
-	private int tokenNumber;
+	private static final int CHAPTER_SHIFT = 24;
+	private static final int VERSE_SHIFT = 12;
+	private static final int NUMBER_MASK = 0xFFF;
+	private final int value;
 
 	/**
 	 * Creates a new location which references a chapter.
 	 * 
 	 * @param chapterNumber
 	 *            an integer value between 1 and 114 inclusive
+	 * 
+	 * @throws JQuranTreeException
+	 *             if the chapter number is invalid
 	 */
 	public Location(int chapterNumber) {
 		this(chapterNumber, 0, 0);
@@ -54,7 +67,13 @@ public class Location {
 	 *            an integer value between 1 and 114 inclusive
 	 * 
 	 * @param verseNumber
-	 *            the number of the verse within the chapter
+	 *            the number of the verse within the chapter, between 0 and
+	 *            4095 inclusive
+	 * 
+	 * @throws JQuranTreeException
+	 *             if the chapter number is invalid, or the verse number is
+	 *             outside the range that can be packed into an
+	 *             <code>int</code>
 	 */
 	public Location(int chapterNumber, int verseNumber) {
 		this(chapterNumber, verseNumber, 0);
@@ -67,16 +86,117 @@ public class Location {
 	 *            an integer value between 1 and 114 inclusive
 	 * 
 	 * @param verseNumber
-	 *            the number of the verse within the chapter
+	 *            the number of the verse within the chapter, between 0 and
+	 *            4095 inclusive
 	 * 
 	 * @param tokenNumber
-	 *            the number of the token within the verse
+	 *            the number of the token within the verse, between 0 and 4095
+	 *            inclusive
+	 * 
+	 * @throws JQuranTreeException
+	 *             if the chapter number is invalid, or the verse or token
+	 *             number is outside the range that can be packed into an
+	 *             <code>int</code>
 	 */
 	public Location(int chapterNumber, int verseNumber, int tokenNumber) {
+		value = encode(chapterNumber, verseNumber, tokenNumber);
+	}
+
+	/**
+	 * Packs a location into a single <code>int</code>.
+	 * 
+	 * @param chapterNumber
+	 *            an integer value between 1 and 114 inclusive
+	 * 
+	 * @param verseNumber
+	 *            the number of the verse within the chapter, or zero for a
+	 *            chapter location
+	 * 
+	 * @param tokenNumber
+	 *            the number of the token within the verse, or zero for a
+	 *            chapter or verse location
+	 * 
+	 * @return the encoded location
+	 * 
+	 * @throws JQuranTreeException
+	 *             if the chapter number is invalid, or the verse or token
+	 *             number is not between 0 and 4095 inclusive
+	 */
+	public static int encode(int chapterNumber, int verseNumber,
+			int tokenNumber) {
+
+		// Validate the location.
 		validateChapterNumber(chapterNumber);
-		this.chapterNumber = chapterNumber;
-		this.verseNumber = verseNumber;
-		this.tokenNumber = tokenNumber;
+		if (verseNumber < 0 || verseNumber > NUMBER_MASK) {
+			throw new JQuranTreeException(Errors.INVALID_VERSE_NUMBER);
+		}
+		if (tokenNumber < 0 || tokenNumber > NUMBER_MASK) {
+			throw new JQuranTreeException(Errors.INVALID_TOKEN_NUMBER);
+		}
+
+		// Pack the location.
+		return chapterNumber << CHAPTER_SHIFT | verseNumber << VERSE_SHIFT
+				| tokenNumber;
+	}
+
+	/**
+	 * Unpacks a location encoded using {@link #encode(int, int, int)}.
+	 * 
+	 * @param value
+	 *            the encoded location
+	 * 
+	 * @return a new <code>Location</code>
+	 */
+	public static Location decode(int value) {
+		return new Location(decodeChapterNumber(value),
+				decodeVerseNumber(value), decodeTokenNumber(value));
+	}
+
+	/**
+	 * Gets the chapter number of an encoded location.
+	 * 
+	 * @param value
+	 *            the encoded location
+	 * 
+	 * @return an integer value between 1 and 114 inclusive.
+	 */
+	public static int decodeChapterNumber(int value) {
+		return value >>> CHAPTER_SHIFT;
+	}
+
+	/**
+	 * Gets the verse number of an encoded location.
+	 * 
+	 * @param value
+	 *            the encoded location
+	 * 
+	 * @return a positive number if the location references a verse or token;
+	 *         zero if the location references a chapter.
+	 */
+	public static int decodeVerseNumber(int value) {
+		return (value >>> VERSE_SHIFT) & NUMBER_MASK;
+	}
+
+	/**
+	 * Gets the token number of an encoded location.
+	 * 
+	 * @param value
+	 *            the encoded location
+	 * 
+	 * @return a positive number if the location references a token; zero
+	 *         otherwise.
+	 */
+	public static int decodeTokenNumber(int value) {
+		return value & NUMBER_MASK;
+	}
+
+	/**
+	 * Packs the location into a single <code>int</code>.
+	 * 
+	 * @return the encoded location
+	 */
+	public int encode() {
+		return value;
 	}
 
 	/**
@@ -85,7 +205,7 @@ public class Location {
 	 * @return an integer value between 1 and 114 inclusive.
 	 */
 	public int getChapterNumber() {
-		return chapterNumber;
+		return decodeChapterNumber(value);
 	}
 
 	/**
@@ -95,7 +215,7 @@ public class Location {
 	 *         zero if the location references a chapter.
 	 */
 	public int getVerseNumber() {
-		return verseNumber;
+		return decodeVerseNumber(value);
 	}
 
 	/**
@@ -105,7 +225,7 @@ public class Location {
 	 *         otherwise.
 	 */
 	public int getTokenNumber() {
-		return tokenNumber;
+		return decodeTokenNumber(value);
 	}
 
 	/**
@@ -120,14 +240,15 @@ public class Location {
 
 		// Start location.
 		StringBuilder text = new StringBuilder();
+		int tokenNumber = getTokenNumber();
 
 		// Chapter number.
 		text.append('(');
-		text.append(chapterNumber);
+		text.append(getChapterNumber());
 
 		// Verse number.
 		text.append(':');
-		text.append(verseNumber);
+		text.append(getVerseNumber());
 
 		// Token number.
 		if (tokenNumber > 0) {
@@ -140,6 +261,46 @@ public class Location {
 		return text.toString();
 	}
 
+	/**
+	 * Determines if this location is equal to another location. Locations are
+	 * equal if they have the same chapter, verse and token numbers.
+	 * 
+	 * @param object
+	 *            the object to compare with
+	 * 
+	 * @return <code>true</code> if the object is an equal location;
+	 *         <code>false</code> otherwise
+	 */
+	@Override
+	public boolean equals(Object object) {
+		return object instanceof Location && ((Location) object).value == value;
+	}
+
+	/**
+	 * Gets a hash code for the location, consistent with
+	 * {@link #equals(Object)}.
+	 * 
+	 * @return the hash code
+	 */
+	@Override
+	public int hashCode() {
+		return value;
+	}
+
+	/**
+	 * Compares this location with another location. Locations are ordered by
+	 * chapter number, then verse number, then token number.
+	 * 
+	 * @param location
+	 *            the location to compare with
+	 * 
+	 * @return a negative integer, zero, or a positive integer if this location
+	 *         is before, equal to, or after the specified location
+	 */
+	public int compareTo(Location location) {
+		return value < location.value ? -1 : (value == location.value ? 0 : 1);
+	}
+
 	static void validateChapterNumber(int chapterNumber) {
 
 		// Check that the chapter number is from 1 to 114 inclusive.
@@ -31,11 +31,13 @@ import org.jqurantree.arabic.ArabicText;
 public class Token extends ArabicText {
 
 	private final Location location;
+	private final int ordinal;
 
-	Token(int chapterNumber, int verseNumber, int tokenNumber, byte[] buffer,
-			int offset, int characterCount) {
+	Token(int chapterNumber, int verseNumber, int tokenNumber, int ordinal,
+			byte[] buffer, int offset, int characterCount) {
 		super(buffer, offset, characterCount);
 		location = new Location(chapterNumber, verseNumber, tokenNumber);
+		this.ordinal = ordinal;
 	}
 
 	/**
@@ -74,6 +76,17 @@ public class Token extends ArabicText {
 		return location.getTokenNumber();
 	}
 
+	/**
+	 * Gets the token's ordinal, its 0-based position in the document. Tokens
+	 * are numbered sequentially across all chapters and verses.
+	 * 
+	 * @return the token ordinal, from 0 to one less than the number of tokens
+	 *         in the document
+	 */
+	public int getOrdinal() {
+		return ordinal;
+	}
+
 	/**
 	 * Gets the verse that contains the token.
 	 * 
@@ -0,0 +1,203 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.orthography;
+
+import org.jqurantree.arabic.ByteFormat;
+import org.jqurantree.arabic.CharacterType;
+
+/**
+ * A reusable cursor used to move through a sequence of tokens in the
+ * orthography model. Enumerating with {@link Document#getTokens()} creates a
+ * new {@link Token} and {@link Location} for each step. In contrast, a cursor
+ * is moved from token to token in place, and does not allocate. The character
+ * data of the current token may be read directly from the document buffer
+ * using {@link #getBuffer()} and {@link #getOffset()}, together with the static
+ * methods of {@link org.jqurantree.arabic.ByteFormat}.
+ * <p>
+ * A cursor is initially positioned before the first token, and is typically
+ * used as follows:
+ * <p>
+ * <code>TokenCursor cursor = Document.getTokenCursor();<br/>
+ * while (cursor.next()) {<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;...<br/>
+ * }</code>
+ * <p>
+ * The methods used to access the current token are only valid after a call to
+ * {@link #next()} returns <code>true</code>.
+ * 
+ * @author Kais Dukes
+ */
+public class TokenCursor {
+
+	private final DocumentBuffer documentBuffer;
+	private final int[] tokenOffsets;
+	private final int[] verseTokenIndices;
+	private final int startVerseIndex;
+	private final int startTokenIndex;
+	private final int endTokenIndex;
+	private int verseIndex;
+	private int tokenIndex;
+
+	TokenCursor(DocumentBuffer documentBuffer, int verseIndex, int verseCount) {
+		this.documentBuffer = documentBuffer;
+		tokenOffsets = documentBuffer.tokenOffsets;
+		verseTokenIndices = documentBuffer.verseTokenIndices;
+		startVerseIndex = verseIndex;
+		startTokenIndex = verseTokenIndices[verseIndex];
+		endTokenIndex = verseTokenIndices[verseIndex + verseCount];
+		reset();
+	}
+
+	/**
+	 * Moves the cursor back to its initial position, before the first token.
+	 */
+	public void reset() {
+		verseIndex = startVerseIndex;
+		tokenIndex = startTokenIndex - 1;
+	}
+
+	/**
+	 * Moves the cursor to the next token.
+	 * 
+	 * @return <code>true</code> if the cursor was moved to the next token;
+	 *         <code>false</code> if there are no more tokens
+	 */
+	public boolean next() {
+
+		// Check for more tokens.
+		if (tokenIndex + 1 >= endTokenIndex) {
+			tokenIndex = endTokenIndex;
+			return false;
+		}
+
+		// Move to the verse containing the next token.
+		tokenIndex++;
+		while (tokenIndex >= verseTokenIndices[verseIndex + 1]) {
+			verseIndex++;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the chapter number of the current token.
+	 * 
+	 * @return the chapter number, between 1 and 114 inclusive
+	 */
+	public int getChapterNumber() {
+		return documentBuffer.verses[verseIndex].getChapterNumber();
+	}
+
+	/**
+	 * Gets the verse number of the current token.
+	 * 
+	 * @return the verse number, a positive integer
+	 */
+	public int getVerseNumber() {
+		return documentBuffer.verses[verseIndex].getVerseNumber();
+	}
+
+	/**
+	 * Gets the token number of the current token.
+	 * 
+	 * @return the token number, a positive integer
+	 */
+	public int getTokenNumber() {
+		return tokenIndex - verseTokenIndices[verseIndex] + 1;
+	}
+
+	/**
+	 * Gets the ordinal of the current token, its 0-based position in the
+	 * document.
+	 * 
+	 * @return the token ordinal
+	 */
+	public int getOrdinal() {
+		return tokenIndex;
+	}
+
+	/**
+	 * Gets the verse that contains the current token.
+	 * 
+	 * @return the current token's verse
+	 */
+	public Verse getVerse() {
+		return documentBuffer.verses[verseIndex];
+	}
+
+	/**
+	 * Gets the buffer holding the character data of the current token, in the
+	 * internal {@link ByteFormat}. This buffer is shared by the entire
+	 * orthography model, and should not be modified.
+	 * 
+	 * @return the <code>byte[]</code> buffer
+	 */
+	public byte[] getBuffer() {
+		return documentBuffer.buffer;
+	}
+
+	/**
+	 * Gets the offset of the current token's first character in the buffer.
+	 * The offset of each subsequent character is incremented by
+	 * {@link ByteFormat#CHARACTER_WIDTH}.
+	 * 
+	 * @return the offset of the first character
+	 */
+	public int getOffset() {
+		return tokenOffsets[tokenIndex];
+	}
+
+	/**
+	 * Gets the number of characters in the current token.
+	 * 
+	 * @return the number of characters, a positive integer
+	 */
+	public int getLength() {
+
+		// Each token is followed by a single whitespace delimiter.
+		return (tokenOffsets[tokenIndex + 1] - tokenOffsets[tokenIndex])
+				/ ByteFormat.CHARACTER_WIDTH - 1;
+	}
+
+	/**
+	 * Gets the type of character at the specified index in the current token.
+	 * The index is zero-based, ranging from <code>0</code> to
+	 * <code>getLength() - 1</code>, inclusive.
+	 * 
+	 * @param index
+	 *            the zero-based index of the character
+	 * 
+	 * @return the type of Arabic letter or Quranic symbol at the specified
+	 *         index, such as <i>Alif</i> or <i>Ba</i>
+	 */
+	public CharacterType getCharacterType(int index) {
+		return CharacterType.values[documentBuffer.buffer[tokenOffsets[tokenIndex]
+				+ index * ByteFormat.CHARACTER_WIDTH]];
+	}
+
+	/**
+	 * Creates a new {@link Token} for the current token. Unlike the other
+	 * methods of the cursor, this allocates a new object.
+	 * 
+	 * @return the current token
+	 */
+	public Token getToken() {
+		return documentBuffer.getToken(documentBuffer.verses[verseIndex],
+				tokenIndex);
+	}
+}
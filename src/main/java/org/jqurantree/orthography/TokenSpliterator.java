@@ -0,0 +1,71 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.orthography;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+class TokenSpliterator implements Spliterator<Token> {
+
+	private final DocumentBuffer documentBuffer;
+	private final int endTokenIndex;
+	private int tokenIndex;
+
+	public TokenSpliterator(DocumentBuffer documentBuffer, int tokenIndex,
+			int endTokenIndex) {
+		this.documentBuffer = documentBuffer;
+		this.tokenIndex = tokenIndex;
+		this.endTokenIndex = endTokenIndex;
+	}
+
+	public boolean tryAdvance(Consumer<? super Token> action) {
+
+		// Check for more tokens.
+		if (tokenIndex >= endTokenIndex) {
+			return false;
+		}
+
+		// Create the next token.
+		action.accept(documentBuffer.getToken(tokenIndex++));
+		return true;
+	}
+
+	public Spliterator<Token> trySplit() {
+
+		// Split the remaining tokens by ordinal into two halves.
+		int midTokenIndex = (tokenIndex + endTokenIndex) >>> 1;
+		if (midTokenIndex <= tokenIndex) {
+			return null;
+		}
+
+		// Return the first half, keeping the second.
+		Spliterator<Token> prefix = new TokenSpliterator(documentBuffer,
+				tokenIndex, midTokenIndex);
+		tokenIndex = midTokenIndex;
+		return prefix;
+	}
+
+	public long estimateSize() {
+		return endTokenIndex - tokenIndex;
+	}
+
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+	}
+}
@@ -19,7 +19,8 @@
 package org.jqurantree.orthography;
 
 import org.jqurantree.arabic.ArabicText;
-import org.jqurantree.arabic.ByteFormat;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
 
 /**
  * The <code>verse</code> class represents one of the numbered verses in a
@@ -33,25 +34,16 @@ import org.jqurantree.arabic.ByteFormat;
 public class Verse extends ArabicText {
 
 	private final Location location;
-	private final int[] tokenOffsets;
+	private final DocumentBuffer documentBuffer;
+	final int verseIndex;
 
-	/**
-	 * Creates a new verse, used by JQuranTree when constructing the orthography
-	 * model.
-	 * 
-	 * @param chapterNumber
-	 *            the chapter number, between 1 and 114 inclusive
-	 * 
-	 * @param verseNumber
-	 *            the verse number, a positive integer
-	 * 
-	 * @param text
-	 *            the Unicode text of the verse
-	 */
-	public Verse(int chapterNumber, int verseNumber, String text) {
-		super(text);
+	Verse(int chapterNumber, int verseNumber, DocumentBuffer documentBuffer,
+			int verseIndex) {
+		super(documentBuffer.buffer, documentBuffer.getVerseOffset(verseIndex),
+				documentBuffer.getVerseLength(verseIndex));
 		location = new Location(chapterNumber, verseNumber);
-		tokenOffsets = getTokenOffsets();
+		this.documentBuffer = documentBuffer;
+		this.verseIndex = verseIndex;
 	}
 
 	/**
@@ -63,6 +55,16 @@ public class Verse extends ArabicText {
 		return location;
 	}
 
+	/**
+	 * Gets the verse's ordinal, its 0-based position in the document. Verses
+	 * are numbered sequentially across all chapters.
+	 * 
+	 * @return the verse ordinal, between 0 and 6235 inclusive
+	 */
+	public int getOrdinal() {
+		return verseIndex;
+	}
+
 	/**
 	 * Gets the chapter that contains the verse.
 	 * 
@@ -99,6 +101,16 @@ public class Verse extends ArabicText {
 		return new VerseTokenIterator(this);
 	}
 
+	/**
+	 * Gets a reusable cursor used to move through all tokens in the verse,
+	 * without creating a new {@link Token} for each step.
+	 * 
+	 * @return a token cursor, positioned before the first token
+	 */
+	public TokenCursor getTokenCursor() {
+		return new TokenCursor(documentBuffer, verseIndex, 1);
+	}
+
 	/**
 	 * Gets a token in the verse by {@link Location} reference.
 	 * 
@@ -120,11 +132,14 @@ public class Verse extends ArabicText {
 	 * @return the specified token
 	 */
 	public Token getToken(int tokenNumber) {
-		int index = tokenNumber - 1;
-		int offset = index > 0 ? tokenOffsets[index - 1] : 0;
-		return new Token(location.getChapterNumber(),
-				location.getVerseNumber(), tokenNumber, buffer, offset,
-				(tokenOffsets[index] - offset) / ByteFormat.CHARACTER_WIDTH - 1);
+
+		// Check that the token number is valid.
+		if (tokenNumber < 1 || tokenNumber > getTokenCount()) {
+			throw new JQuranTreeException(Errors.INVALID_TOKEN_NUMBER);
+		}
+
+		// Return token.
+		return documentBuffer.getToken(this, getTokenIndex() + tokenNumber - 1);
 	}
 
 	/**
@@ -133,35 +148,12 @@ public class Verse extends ArabicText {
 	 * @return a positive integer
 	 */
 	public int getTokenCount() {
-		return tokenOffsets.length;
+		return documentBuffer.verseTokenIndices[verseIndex + 1]
+				- getTokenIndex();
 	}
 
-	private int[] getTokenOffsets() {
-
-		// Pass 1: Count tokens.
-		int size = 1;
-		int offset = this.offset;
-		for (int i = 0; i < characterCount; i++) {
-			if (buffer[offset] == ByteFormat.WHITESPACE) {
-				size++;
-			}
-			offset += ByteFormat.CHARACTER_WIDTH;
-		}
-
-		// Pass 2: Get offsets.
-		int[] tokenOffsets = new int[size];
-		int index = 0;
-		offset = this.offset;
-		for (int i = 0; i < characterCount; i++) {
-			if (buffer[offset] == ByteFormat.WHITESPACE) {
-				tokenOffsets[index++] = offset + ByteFormat.CHARACTER_WIDTH;
-			}
-			offset += ByteFormat.CHARACTER_WIDTH;
-		}
-		tokenOffsets[size - 1] = offset + ByteFormat.CHARACTER_WIDTH;
-
-		// Return offsets.
-		return tokenOffsets;
+	int getTokenIndex() {
+		return documentBuffer.verseTokenIndices[verseIndex];
 	}
 
 	/**
@@ -0,0 +1,67 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import java.util.BitSet;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.TokenCursor;
+
+class MatchSpliterator implements Spliterator.OfInt {
+
+	private final PatternAutomaton automaton;
+	private final BitSet results;
+	private final TokenCursor cursor = Document.getTokenCursor();
+	private int remainingCount = Document.getTokenCount();
+
+	public MatchSpliterator(PatternAutomaton automaton, BitSet results) {
+		this.automaton = automaton;
+		this.results = results;
+	}
+
+	public boolean tryAdvance(IntConsumer action) {
+
+		// Check each remaining token only when the next match is requested.
+		while (cursor.next()) {
+			remainingCount--;
+			int ordinal = cursor.getOrdinal();
+			if (results.get(ordinal)
+					|| automaton.isMatch(cursor.getBuffer(), cursor.getOffset(),
+							cursor.getLength())) {
+				action.accept(ordinal);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public Spliterator.OfInt trySplit() {
+		return null;
+	}
+
+	public long estimateSize() {
+		return remainingCount;
+	}
+
+	public int characteristics() {
+		return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+	}
+}
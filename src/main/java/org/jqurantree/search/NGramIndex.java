@@ -0,0 +1,262 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.jqurantree.arabic.ArabicText;
+import org.jqurantree.arabic.ByteFormat;
+import org.jqurantree.arabic.CharacterType;
+import org.jqurantree.arabic.encoding.EncodingType;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.TokenCursor;
+
+class NGramIndex {
+
+	public static final int DEFAULT_GRAM_LENGTH = 3;
+	public static final int MAX_GRAM_LENGTH = 5;
+	public static final char WILDCARD = '?';
+	private static final int WILDCARD_TYPE = -2;
+	private static final int TYPE_BITS = 6;
+	private static final NGramIndex[] indexes = new NGramIndex[MAX_GRAM_LENGTH + 1];
+	private final int gramLength;
+	private final byte[] characterTypes;
+	private final int[] tokenOffsets;
+	private final int[] grams;
+	private final int[] gramOffsets;
+	private final int[] postings;
+
+	public static synchronized NGramIndex getIndex(int gramLength) {
+		if (gramLength < 1 || gramLength > MAX_GRAM_LENGTH) {
+			throw new JQuranTreeException(Errors.INVALID_GRAM_LENGTH);
+		}
+
+		// Build the index on first use.
+		NGramIndex index = indexes[gramLength];
+		if (index == null) {
+			index = new NGramIndex(gramLength);
+			indexes[gramLength] = index;
+		}
+		return index;
+	}
+
+	private NGramIndex(int gramLength) {
+
+		// Initiate.
+		this.gramLength = gramLength;
+		int tokenCount = Document.getTokenCount();
+		tokenOffsets = new int[tokenCount + 1];
+		long[] entries = new long[tokenCount * 4];
+		int entryCount = 0;
+
+		// Count characters.
+		TokenCursor cursor = Document.getTokenCursor();
+		while (cursor.next()) {
+			tokenOffsets[cursor.getOrdinal() + 1] = tokenOffsets[cursor
+					.getOrdinal()]
+					+ cursor.getLength();
+		}
+
+		// Note the character types of each token, without diacritics, and
+		// each gram with the ordinal of its token.
+		characterTypes = new byte[tokenOffsets[tokenCount]];
+		cursor.reset();
+		while (cursor.next()) {
+			int ordinal = cursor.getOrdinal();
+			int start = tokenOffsets[ordinal];
+			byte[] buffer = cursor.getBuffer();
+			int offset = cursor.getOffset();
+			int length = cursor.getLength();
+			for (int i = 0; i < length; i++) {
+				characterTypes[start + i] = buffer[offset + i
+						* ByteFormat.CHARACTER_WIDTH];
+			}
+			for (int i = 0; i + gramLength <= length; i++) {
+				if (entryCount == entries.length) {
+					entries = Arrays.copyOf(entries, entryCount * 2);
+				}
+				entries[entryCount++] = (long) getGram(characterTypes, start
+						+ i) << 32 | ordinal;
+			}
+		}
+
+		// Sort entries by gram, then by ordinal.
+		Arrays.sort(entries, 0, entryCount);
+
+		// Group postings by gram, ignoring repeated grams within a token.
+		int[] grams = new int[entryCount];
+		int[] gramOffsets = new int[entryCount + 1];
+		postings = new int[entryCount];
+		int gramCount = 0;
+		int postingCount = 0;
+		for (int i = 0; i < entryCount; i++) {
+			if (i > 0 && entries[i] == entries[i - 1]) {
+				continue;
+			}
+			int gram = (int) (entries[i] >>> 32);
+			if (gramCount == 0 || grams[gramCount - 1] != gram) {
+				grams[gramCount] = gram;
+				gramOffsets[gramCount++] = postingCount;
+			}
+			postings[postingCount++] = (int) entries[i];
+		}
+		gramOffsets[gramCount] = postingCount;
+		this.grams = Arrays.copyOf(grams, gramCount);
+		this.gramOffsets = Arrays.copyOf(gramOffsets, gramCount + 1);
+	}
+
+	public int getGramLength() {
+		return gramLength;
+	}
+
+	public static int[] parse(String pattern, EncodingType encodingType) {
+
+		// Decode each fragment between wildcards, ignoring diacritics.
+		int[] types = new int[pattern.length()];
+		int size = 0;
+		int start = 0;
+		while (start <= pattern.length()) {
+			int end = pattern.indexOf(WILDCARD, start);
+			if (end < 0) {
+				end = pattern.length();
+			}
+			ArabicText text = ArabicText.fromEncoding(pattern.substring(start,
+					end), encodingType);
+			int length = text.getLength();
+			for (int i = 0; i < length; i++) {
+				CharacterType characterType = text.getCharacterType(i);
+				types[size++] = characterType != null ? characterType
+						.ordinal() : ByteFormat.WHITESPACE;
+			}
+			if (end < pattern.length()) {
+				types[size++] = WILDCARD_TYPE;
+			}
+			start = end + 1;
+		}
+		return Arrays.copyOf(types, size);
+	}
+
+	public void find(int[] pattern, BitSet results) {
+
+		// Intersect the postings of each gram in the pattern, then verify
+		// each candidate.
+		int[] candidates = getCandidates(pattern);
+		if (candidates == null) {
+			int tokenCount = tokenOffsets.length - 1;
+			for (int i = 0; i < tokenCount; i++) {
+				if (isMatch(pattern, i)) {
+					results.set(i);
+				}
+			}
+		} else {
+			for (int ordinal : candidates) {
+				if (isMatch(pattern, ordinal)) {
+					results.set(ordinal);
+				}
+			}
+		}
+	}
+
+	private int[] getCandidates(int[] pattern) {
+
+		// Intersect postings for each gram without wildcards.
+		int[] candidates = null;
+		for (int i = 0; i + gramLength <= pattern.length; i++) {
+
+			// Skip grams with wildcards.
+			int gram = 0;
+			boolean isValid = true;
+			for (int j = 0; j < gramLength; j++) {
+				int characterType = pattern[i + j];
+				if (characterType < 0) {
+					isValid = false;
+					break;
+				}
+				gram = gram << TYPE_BITS | characterType;
+			}
+			if (!isValid) {
+				continue;
+			}
+
+			// A gram which does not occur has no candidates.
+			int index = Arrays.binarySearch(grams, gram);
+			if (index < 0) {
+				return new int[0];
+			}
+
+			// Intersect.
+			int start = gramOffsets[index];
+			int end = gramOffsets[index + 1];
+			candidates = candidates == null ? Arrays.copyOfRange(postings,
+					start, end) : intersect(candidates, start, end);
+		}
+
+		// Return candidates, or null if all tokens are candidates.
+		return candidates;
+	}
+
+	private int[] intersect(int[] candidates, int start, int end) {
+		int[] result = new int[Math.min(candidates.length, end - start)];
+		int size = 0;
+		int i = 0;
+		int j = start;
+		while (i < candidates.length && j < end) {
+			if (candidates[i] < postings[j]) {
+				i++;
+			} else if (candidates[i] > postings[j]) {
+				j++;
+			} else {
+				result[size++] = candidates[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	private boolean isMatch(int[] pattern, int ordinal) {
+
+		// Compare the pattern at each position in the token.
+		int start = tokenOffsets[ordinal];
+		int end = tokenOffsets[ordinal + 1] - pattern.length;
+		for (int i = start; i <= end; i++) {
+			int j = 0;
+			while (j < pattern.length
+					&& (pattern[j] == WILDCARD_TYPE || pattern[j] == characterTypes[i
+							+ j])) {
+				j++;
+			}
+			if (j == pattern.length) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int getGram(byte[] types, int offset) {
+		int gram = 0;
+		for (int i = 0; i < gramLength; i++) {
+			gram = gram << TYPE_BITS | types[offset + i];
+		}
+		return gram;
+	}
+}
@@ -0,0 +1,184 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.jqurantree.arabic.ByteFormat;
+import org.jqurantree.arabic.CharacterType;
+
+class PatternAutomaton {
+
+	private static final int ALPHABET_SIZE = CharacterType.values.length;
+	private static final int[] EMPTY = new int[0];
+	private final SearchItem[] items;
+	private final int[] transitions;
+	private final int[][] outputs;
+	private boolean isEmptyMatch;
+
+	public PatternAutomaton(List<SearchItem> items) {
+
+		// Initiate.
+		this.items = items.toArray(new SearchItem[items.size()]);
+		int capacity = 1;
+		for (SearchItem item : items) {
+			capacity += item.getBuffer().length / ByteFormat.CHARACTER_WIDTH;
+		}
+		int[] transitions = new int[capacity * ALPHABET_SIZE];
+		int[][] outputs = new int[capacity][];
+		Arrays.fill(transitions, -1);
+		Arrays.fill(outputs, EMPTY);
+		int stateCount = 1;
+
+		// Build a trie over the character types of each pattern.
+		for (int i = 0; i < this.items.length; i++) {
+			byte[] pattern = this.items[i].getBuffer();
+
+			// An empty substring matches every token.
+			if (pattern.length == 0) {
+				isEmptyMatch |= this.items[i].getType() == SearchType.Substring;
+				continue;
+			}
+
+			// Patterns with whitespace cannot match a token.
+			if (!isValid(pattern)) {
+				continue;
+			}
+
+			// Add the pattern.
+			int state = 0;
+			for (int j = 0; j < pattern.length; j += ByteFormat.CHARACTER_WIDTH) {
+				int index = state * ALPHABET_SIZE + pattern[j];
+				if (transitions[index] < 0) {
+					transitions[index] = stateCount++;
+				}
+				state = transitions[index];
+			}
+			outputs[state] = add(outputs[state], i);
+		}
+
+		// Breadth first traversal, completing transitions using failure
+		// links, and merging outputs of each failure state.
+		int[] failures = new int[stateCount];
+		int[] queue = new int[stateCount];
+		int head = 0;
+		int tail = 0;
+		for (int i = 0; i < ALPHABET_SIZE; i++) {
+			if (transitions[i] < 0) {
+				transitions[i] = 0;
+			} else {
+				queue[tail++] = transitions[i];
+			}
+		}
+		while (head < tail) {
+			int state = queue[head++];
+			for (int i = 0; i < ALPHABET_SIZE; i++) {
+				int index = state * ALPHABET_SIZE + i;
+				int failure = transitions[failures[state] * ALPHABET_SIZE + i];
+				if (transitions[index] < 0) {
+					transitions[index] = failure;
+				} else {
+					int next = transitions[index];
+					failures[next] = failure;
+					outputs[next] = merge(outputs[next], outputs[failure]);
+					queue[tail++] = next;
+				}
+			}
+		}
+
+		// Trim to the number of states.
+		this.transitions = Arrays.copyOf(transitions, stateCount
+				* ALPHABET_SIZE);
+		this.outputs = Arrays.copyOf(outputs, stateCount);
+	}
+
+	public boolean isMatch(byte[] buffer, int offset, int characterCount) {
+
+		// An empty substring matches every token.
+		if (isEmptyMatch) {
+			return true;
+		}
+
+		// Run the automaton over the character types of the token.
+		int state = 0;
+		for (int i = 0; i < characterCount; i++) {
+			int characterOffset = offset + i * ByteFormat.CHARACTER_WIDTH;
+			int characterType = buffer[characterOffset];
+			if (characterType < 0) {
+				state = 0;
+				continue;
+			}
+			state = transitions[state * ALPHABET_SIZE + characterType];
+
+			// Check each pattern ending at this character.
+			for (int itemIndex : outputs[state]) {
+				if (isMatch(items[itemIndex], buffer, offset, characterCount,
+						i + 1)) {
+					return true;
+				}
+			}
+		}
+
+		// No match.
+		return false;
+	}
+
+	private boolean isMatch(SearchItem item, byte[] buffer, int offset,
+			int characterCount, int end) {
+
+		// Tokens must match the whole of the text.
+		byte[] pattern = item.getBuffer();
+		int start = end - pattern.length / ByteFormat.CHARACTER_WIDTH;
+		if (item.getType() == SearchType.Token
+				&& (start != 0 || end != characterCount)) {
+			return false;
+		}
+
+		// Character types are known to match, so only diacritics are checked.
+		return item.getOptions() == SearchOptions.RemoveDiacritics
+				|| TokenMatcher.isMatch(pattern, buffer, offset + start
+						* ByteFormat.CHARACTER_WIDTH, pattern.length
+						/ ByteFormat.CHARACTER_WIDTH, 0xFF);
+	}
+
+	private static boolean isValid(byte[] pattern) {
+		for (int i = 0; i < pattern.length; i += ByteFormat.CHARACTER_WIDTH) {
+			if (pattern[i] < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int[] add(int[] values, int value) {
+		int[] result = Arrays.copyOf(values, values.length + 1);
+		result[values.length] = value;
+		return result;
+	}
+
+	private static int[] merge(int[] values1, int[] values2) {
+		if (values2.length == 0) {
+			return values1;
+		}
+		int[] result = Arrays.copyOf(values1, values1.length + values2.length);
+		System.arraycopy(values2, 0, result, values1.length, values2.length);
+		return result;
+	}
+}
@@ -0,0 +1,282 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jqurantree.analysis.AnalysisTable;
+import org.jqurantree.arabic.encoding.EncodingType;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.Location;
+
+/**
+ * The <code>PhraseSearch</code> class searches for phrases of consecutive
+ * tokens within the orthography model. This class is used in the same way as
+ * {@link TokenSearch}, by specifying an encoding type, defining the phrases to
+ * search for through calls to {@link #findPhrase(String)}, then running the
+ * search by calling the {@link #getResults()} method.
+ * <p>
+ * The results will be returned as an analysis table with 5 columns:
+ * <p>
+ * - The chapter number of the first token in the match.<br/> - The verse
+ * number of the first token in the match.<br/> - The token number of the first
+ * token in the match.<br/> - The number of tokens spanned by the match.<br/>
+ * - The text of the tokens spanned by the match, in the specified encoding.<br/>
+ * <p>
+ * Phrases are found using the positional postings of each token in the
+ * inverted index used by <code>TokenSearch</code>. Since postings are token
+ * ordinals, a phrase matches where the postings of adjacent tokens are
+ * consecutive, so verses are not scanned. By default, the tokens of a phrase
+ * must be adjacent and in the same verse. A slop may be specified to allow up
+ * to that number of additional tokens between the tokens of the phrase, and
+ * matches may be allowed to cross verse boundaries.
+ * 
+ * @author Kais Dukes
+ */
+public class PhraseSearch {
+
+	private final List<String[]> phrases = new ArrayList<String[]>();
+	private final List<SearchOptions> phraseOptions = new ArrayList<SearchOptions>();
+	private final EncodingType encodingType;
+	private final SearchOptions options;
+	private int slop;
+	private boolean isCrossVerses;
+
+	/**
+	 * Creates a new <code>PhraseSearch</code> instance, using the specified
+	 * encoding scheme.
+	 * 
+	 * @param encodingType
+	 *            the encoding scheme to use when performing string comparsions
+	 */
+	public PhraseSearch(EncodingType encodingType) {
+		this(encodingType, null);
+	}
+
+	/**
+	 * Creates a new <code>PhraseSearch</code> instance, using the specified
+	 * encoding scheme and search options. If
+	 * <code>SearchOptions.RemoveDiacritics</code> is specified, then the search
+	 * performed will not be sensitive to the presence of diacritics.
+	 * 
+	 * @param encodingType
+	 *            the encoding scheme to use when performing string comparsions
+	 * 
+	 * @param options
+	 *            the search options to use.
+	 */
+	public PhraseSearch(EncodingType encodingType, SearchOptions options) {
+		this.encodingType = encodingType;
+		this.options = options;
+	}
+
+	/**
+	 * Sets the slop, which is the total number of additional tokens allowed
+	 * between the tokens of a phrase. The tokens must still occur in order. The
+	 * default slop is zero, requiring the tokens to be adjacent.
+	 * 
+	 * @param slop
+	 *            the number of additional tokens allowed
+	 */
+	public void setSlop(int slop) {
+		if (slop < 0) {
+			throw new JQuranTreeException(Errors.INVALID_PHRASE_SLOP);
+		}
+		this.slop = slop;
+	}
+
+	/**
+	 * Specifies whether matches may cross verse boundaries. By default, all of
+	 * the tokens in a match must be in the same verse.
+	 * 
+	 * @param isCrossVerses
+	 *            <code>true</code> to allow matches to span verses
+	 */
+	public void setCrossVerses(boolean isCrossVerses) {
+		this.isCrossVerses = isCrossVerses;
+	}
+
+	/**
+	 * Adds a phrase to the list of search criteria.
+	 * 
+	 * @param text
+	 *            the phrase to search for, in the specified encoding scheme,
+	 *            with tokens separated by whitespace
+	 */
+	public void findPhrase(String text) {
+		findPhrase(text, options);
+	}
+
+	/**
+	 * Adds a phrase to the list of search criteria, with search options.
+	 * 
+	 * @param text
+	 *            the phrase to search for, in the specified encoding scheme,
+	 *            with tokens separated by whitespace
+	 * 
+	 * @param options
+	 *            the search options to use when performing this match
+	 */
+	public void findPhrase(String text, SearchOptions options) {
+		String trimmedText = text.trim();
+		phrases.add(trimmedText.length() > 0 ? trimmedText.split("\\s+")
+				: new String[0]);
+		phraseOptions.add(options);
+	}
+
+	/**
+	 * Gets an {@link AnalysisTable} holding the search results. The returned
+	 * analysis table will list all matches in order, together with the
+	 * location of the first token and the number of tokens spanned. The phrases
+	 * are combined using a Boolean OR.
+	 * 
+	 * @return an analysis table holding the search results
+	 */
+	public AnalysisTable getResults() {
+
+		// Initiate an analysis table.
+		AnalysisTable table = new AnalysisTable("ChapterNumber", "VerseNumber",
+				"TokenNumber", "Length", "Phrase");
+
+		// Find matches, packed as the start ordinal followed by the length.
+		long[] matches = new long[0];
+		int matchCount = 0;
+		for (int i = 0; i < phrases.size(); i++) {
+			long[] phraseMatches = find(phrases.get(i), phraseOptions.get(i));
+			matches = Arrays.copyOf(matches, matchCount + phraseMatches.length);
+			System.arraycopy(phraseMatches, 0, matches, matchCount,
+					phraseMatches.length);
+			matchCount += phraseMatches.length;
+		}
+		Arrays.sort(matches);
+
+		// List each distinct match.
+		TokenCorpus corpus = TokenCorpus.getCorpus(encodingType, false);
+		for (int i = 0; i < matchCount; i++) {
+			if (i > 0 && matches[i] == matches[i - 1]) {
+				continue;
+			}
+			int start = (int) (matches[i] >>> 32);
+			int length = (int) matches[i];
+			StringBuilder text = new StringBuilder();
+			for (int j = 0; j < length; j++) {
+				if (j > 0) {
+					text.append(' ');
+				}
+				text.append(corpus.getTokenText(start + j));
+			}
+			Location location = Document.getTokenLocation(start);
+			table.add(location.getChapterNumber(), location.getVerseNumber(),
+					location.getTokenNumber(), length, text.toString());
+		}
+
+		// Return results.
+		return table;
+	}
+
+	private long[] find(String[] phrase, SearchOptions options) {
+
+		// Get postings for each token in the phrase.
+		if (phrase.length == 0) {
+			return new long[0];
+		}
+		TokenIndex index = TokenIndex.getIndex(encodingType,
+				options == SearchOptions.RemoveDiacritics);
+		int[][] postings = new int[phrase.length][];
+		for (int i = 0; i < phrase.length; i++) {
+			postings[i] = index.getOrdinals(phrase[i]);
+		}
+
+		// Find the start and end of each match.
+		int[] starts = postings[0];
+		int[] ends = slop == 0 ? intersect(postings) : extend(postings);
+
+		// Pack matches, checking verse boundaries.
+		long[] matches = new long[starts.length];
+		int matchCount = 0;
+		for (int i = 0; i < starts.length; i++) {
+			if (ends[i] >= 0
+					&& (isCrossVerses || isSameVerse(starts[i], ends[i]))) {
+				matches[matchCount++] = (long) starts[i] << 32
+						| (ends[i] - starts[i] + 1);
+			}
+		}
+		return Arrays.copyOf(matches, matchCount);
+	}
+
+	private int[] intersect(int[][] postings) {
+
+		// Adjacent tokens: each posting list is offset by its position in the
+		// phrase, and intersected with the first.
+		int[] starts = postings[0];
+		boolean[] isMatch = new boolean[starts.length];
+		Arrays.fill(isMatch, true);
+		for (int i = 1; i < postings.length; i++) {
+			int[] next = postings[i];
+			int k = 0;
+			for (int j = 0; j < starts.length; j++) {
+				int ordinal = starts[j] + i;
+				while (k < next.length && next[k] < ordinal) {
+					k++;
+				}
+				isMatch[j] &= k < next.length && next[k] == ordinal;
+			}
+		}
+
+		// The end of each match, or -1 for no match.
+		int[] ends = new int[starts.length];
+		for (int i = 0; i < starts.length; i++) {
+			ends[i] = isMatch[i] ? starts[i] + postings.length - 1 : -1;
+		}
+		return ends;
+	}
+
+	private int[] extend(int[][] postings) {
+
+		// For each start, take the earliest occurrence of each subsequent token,
+		// which gives the shortest span.
+		int[] starts = postings[0];
+		int[] ends = new int[starts.length];
+		for (int i = 0; i < starts.length; i++) {
+			int ordinal = starts[i];
+			for (int j = 1; j < postings.length && ordinal >= 0; j++) {
+				int index = Arrays.binarySearch(postings[j], ordinal + 1);
+				if (index < 0) {
+					index = -index - 1;
+				}
+				ordinal = index < postings[j].length ? postings[j][index] : -1;
+			}
+
+			// Check the slop.
+			ends[i] = ordinal >= 0
+					&& ordinal - starts[i] - (postings.length - 1) <= slop ? ordinal
+					: -1;
+		}
+		return ends;
+	}
+
+	private boolean isSameVerse(int startOrdinal, int endOrdinal) {
+		return Document.getTokenVerseOrdinal(startOrdinal) == Document
+				.getTokenVerseOrdinal(endOrdinal);
+	}
+}
@@ -18,10 +18,14 @@
 
 package org.jqurantree.search;
 
+import org.jqurantree.arabic.ArabicText;
+
 class SearchItem {
 
 	private SearchType type;
 	private String text;
+	private byte[] buffer;
+	private int maxDistance;
 	private SearchOptions options;
 
 	public SearchItem(SearchType type, String text, SearchOptions options) {
@@ -30,6 +34,18 @@ class SearchItem {
 		this.options = options;
 	}
 
+	public SearchItem(SearchType type, String text, int maxDistance,
+			SearchOptions options) {
+		this(type, text, options);
+		this.maxDistance = maxDistance;
+	}
+
+	public SearchItem(SearchType type, ArabicText text, SearchOptions options) {
+		this.type = type;
+		this.buffer = text.toByteArray();
+		this.options = options;
+	}
+
 	public SearchType getType() {
 		return type;
 	}
@@ -38,6 +54,14 @@ class SearchItem {
 		return text;
 	}
 
+	public byte[] getBuffer() {
+		return buffer;
+	}
+
+	public int getMaxDistance() {
+		return maxDistance;
+	}
+
 	public SearchOptions getOptions() {
 		return options;
 	}
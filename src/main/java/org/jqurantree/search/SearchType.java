@@ -21,5 +21,9 @@ package org.jqurantree.search;
 enum SearchType {
 
 	Token,
-	Substring
+	Substring,
+	Wildcard,
+	Fuzzy,
+	Prefix,
+	Suffix
 }
@@ -0,0 +1,237 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import java.util.BitSet;
+
+import org.jqurantree.arabic.encoding.EncodingType;
+
+class SubstringIndex {
+
+	private static final int INSERTION_SORT_SIZE = 16;
+	private static final SubstringIndex[] indexes = new SubstringIndex[EncodingType
+			.values().length * 2];
+	private final TokenCorpus corpus;
+	private final char[] text;
+	private final int[] suffixes;
+	private final int[] lcp;
+
+	public static synchronized SubstringIndex getIndex(
+			EncodingType encodingType, boolean isRemoveDiacritics) {
+
+		// Build the index on first use.
+		int index = encodingType.ordinal() * 2 + (isRemoveDiacritics ? 1 : 0);
+		SubstringIndex substringIndex = indexes[index];
+		if (substringIndex == null) {
+			substringIndex = new SubstringIndex(TokenCorpus.getCorpus(
+					encodingType, isRemoveDiacritics));
+			indexes[index] = substringIndex;
+		}
+		return substringIndex;
+	}
+
+	private SubstringIndex(TokenCorpus corpus) {
+
+		// Initiate.
+		this.corpus = corpus;
+		this.text = corpus.getText();
+
+		// A suffix starts at each position, excluding separators. Each suffix
+		// ends at the end of its token.
+		int size = text.length - corpus.getTokenCount();
+		suffixes = new int[size];
+		int index = 0;
+		for (int i = 0; i < text.length; i++) {
+			if (text[i] != TokenCorpus.SEPARATOR) {
+				suffixes[index++] = i;
+			}
+		}
+
+		// Sort suffixes.
+		sort(0, size, 0);
+
+		// The longest common prefix of each suffix with the previous suffix.
+		lcp = new int[size];
+		for (int i = 1; i < size; i++) {
+			int position1 = suffixes[i - 1];
+			int position2 = suffixes[i];
+			int length = 0;
+			while (text[position1 + length] == text[position2 + length]
+					&& text[position1 + length] != TokenCorpus.SEPARATOR) {
+				length++;
+			}
+			lcp[i] = length;
+		}
+	}
+
+	public void find(String substring, BitSet results) {
+
+		// An empty substring is contained by every token.
+		int length = substring.length();
+		if (length == 0) {
+			results.set(0, corpus.getTokenCount());
+			return;
+		}
+
+		// Find the first suffix starting with the substring.
+		int start = getLowerBound(substring);
+		if (start == suffixes.length || !isPrefix(suffixes[start], substring)) {
+			return;
+		}
+
+		// Subsequent suffixes share the substring as a common prefix.
+		for (int i = start; i < suffixes.length; i++) {
+			if (i > start && lcp[i] < length) {
+				break;
+			}
+			results.set(corpus.getTokenOrdinal(suffixes[i]));
+		}
+	}
+
+	public int getOccurrenceCount(String substring) {
+
+		// An empty substring occurs once in every token.
+		if (substring.length() == 0) {
+			return corpus.getTokenCount();
+		}
+
+		// Count suffixes starting with the substring.
+		int start = getLowerBound(substring);
+		int end = start;
+		int high = suffixes.length;
+		while (end < high) {
+			int middle = (end + high) >>> 1;
+			if (isPrefix(suffixes[middle], substring)) {
+				end = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return end - start;
+	}
+
+	private int getLowerBound(String substring) {
+
+		// Binary search for the first suffix not less than the substring.
+		int low = 0;
+		int high = suffixes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (compare(suffixes[middle], substring) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int compare(int position, String substring) {
+
+		// The separator ends the suffix, and sorts before any character.
+		int length = substring.length();
+		for (int i = 0; i < length; i++) {
+			char ch1 = text[position + i];
+			char ch2 = substring.charAt(i);
+			if (ch1 != ch2) {
+				return ch1 == TokenCorpus.SEPARATOR ? -1 : ch1 - ch2;
+			}
+			if (ch1 == TokenCorpus.SEPARATOR) {
+				return -1;
+			}
+		}
+		return 0;
+	}
+
+	private boolean isPrefix(int position, String substring) {
+		return compare(position, substring) == 0;
+	}
+
+	private void sort(int start, int end, int depth) {
+
+		// Multikey quicksort, partitioning on the character at each depth.
+		while (end - start > INSERTION_SORT_SIZE) {
+
+			// Median of three pivot.
+			int middle = (start + end) >>> 1;
+			char pivot = getMedian(getCharacter(start, depth), getCharacter(
+					middle, depth), getCharacter(end - 1, depth));
+
+			// Partition into less, equal and greater.
+			int less = start;
+			int greater = end - 1;
+			int i = start;
+			while (i <= greater) {
+				char ch = getCharacter(i, depth);
+				if (ch < pivot) {
+					swap(less++, i++);
+				} else if (ch > pivot) {
+					swap(i, greater--);
+				} else {
+					i++;
+				}
+			}
+
+			// Sort partitions. Suffixes which have ended are equal.
+			sort(start, less, depth);
+			sort(greater + 1, end, depth);
+			if (pivot == TokenCorpus.SEPARATOR) {
+				return;
+			}
+			start = less;
+			end = greater + 1;
+			depth++;
+		}
+
+		// Insertion sort.
+		for (int i = start + 1; i < end; i++) {
+			for (int j = i; j > start && compare(j - 1, j, depth) > 0; j--) {
+				swap(j - 1, j);
+			}
+		}
+	}
+
+	private int compare(int index1, int index2, int depth) {
+		int position1 = suffixes[index1] + depth;
+		int position2 = suffixes[index2] + depth;
+		while (text[position1] == text[position2]
+				&& text[position1] != TokenCorpus.SEPARATOR) {
+			position1++;
+			position2++;
+		}
+		return text[position1] - text[position2];
+	}
+
+	private char getCharacter(int index, int depth) {
+		return text[suffixes[index] + depth];
+	}
+
+	private static char getMedian(char ch1, char ch2, char ch3) {
+		if (ch1 < ch2) {
+			return ch2 < ch3 ? ch2 : (ch1 < ch3 ? ch3 : ch1);
+		}
+		return ch1 < ch3 ? ch1 : (ch2 < ch3 ? ch3 : ch2);
+	}
+
+	private void swap(int index1, int index2) {
+		int position = suffixes[index1];
+		suffixes[index1] = suffixes[index2];
+		suffixes[index2] = position;
+	}
+}
@@ -0,0 +1,553 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.jqurantree.analysis.AnalysisTable;
+import org.jqurantree.arabic.encoding.EncodingType;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.Location;
+
+/**
+ * A <code>TokenBitmap</code> is an immutable compressed set of token
+ * ordinals, used to combine search results with Boolean operations. Bitmaps
+ * are returned by {@link TokenSearch#getBitmap()}, and may be scoped to a range
+ * of chapters or verses by intersecting with the bitmaps returned by
+ * {@link #getChapterRange(int, int)} and
+ * {@link #getVerseRange(Location, Location)}. For example, to find tokens
+ * containing one string in chapters 2 to 9, except for tokens equal to another
+ * string:
+ * <p>
+ * <code>search1.getBitmap().and(TokenBitmap.getChapterRange(2, 9)).andNot(search2.getBitmap())</code>
+ * <p>
+ * The set is compressed using a scheme similar to Roaring bitmaps. Ordinals
+ * are partitioned into chunks of 65536 by their high 16 bits. Each chunk holds
+ * its low 16 bits either in a sorted <code>char[]</code> array when sparse,
+ * or in a <code>long[]</code> bitmap when it holds more than 4096 ordinals.
+ * Boolean operations are performed chunk by chunk, using merges for arrays and
+ * word operations for bitmaps.
+ * 
+ * @author Kais Dukes
+ */
+public class TokenBitmap {
+
+	private static final int CHUNK_BITS = 16;
+	private static final int CHUNK_MASK = 0xFFFF;
+	private static final int ARRAY_LIMIT = 4096;
+	private static final int WORD_COUNT = (CHUNK_MASK + 1) / 64;
+	private static final TokenBitmap EMPTY = new TokenBitmap(new int[0],
+			new Object[0]);
+	private final int[] keys;
+	private final Object[] containers;
+
+	private TokenBitmap(int[] keys, Object[] containers) {
+		this.keys = keys;
+		this.containers = containers;
+	}
+
+	/**
+	 * Gets an empty bitmap.
+	 * 
+	 * @return a bitmap without any tokens
+	 */
+	public static TokenBitmap getEmpty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Gets a bitmap holding every token in the Quranic text.
+	 * 
+	 * @return a bitmap of all tokens
+	 */
+	public static TokenBitmap getAll() {
+		return getRange(0, Document.getTokenCount());
+	}
+
+	/**
+	 * Gets a bitmap holding every token in a range of chapters.
+	 * 
+	 * @param firstChapterNumber
+	 *            the first chapter number in the range
+	 * 
+	 * @param lastChapterNumber
+	 *            the last chapter number in the range, inclusive
+	 * 
+	 * @return a bitmap of the tokens in the range
+	 */
+	public static TokenBitmap getChapterRange(int firstChapterNumber,
+			int lastChapterNumber) {
+		Location first = new Location(firstChapterNumber, 1);
+		Location last = new Location(lastChapterNumber, Document.getChapter(
+				lastChapterNumber).getVerseCount());
+		return getVerseRange(first, last);
+	}
+
+	/**
+	 * Gets a bitmap holding every token in a range of verses.
+	 * 
+	 * @param firstVerse
+	 *            the location of the first verse in the range
+	 * 
+	 * @param lastVerse
+	 *            the location of the last verse in the range, inclusive
+	 * 
+	 * @return a bitmap of the tokens in the range
+	 */
+	public static TokenBitmap getVerseRange(Location firstVerse,
+			Location lastVerse) {
+		int start = Document.getTokenOrdinal(new Location(firstVerse
+				.getChapterNumber(), firstVerse.getVerseNumber(), 1));
+		int end = Document.getTokenOrdinal(new Location(lastVerse
+				.getChapterNumber(), lastVerse.getVerseNumber(), 1))
+				+ Document.getVerse(lastVerse).getTokenCount();
+		return getRange(start, end);
+	}
+
+	static TokenBitmap getRange(int start, int end) {
+		BitSet bits = new BitSet(end);
+		if (start < end) {
+			bits.set(start, end);
+		}
+		return fromBitSet(bits);
+	}
+
+	static TokenBitmap fromBitSet(BitSet bits) {
+
+		// Partition the set bits into chunks.
+		int chunkCount = bits.isEmpty() ? 0 : (bits.length() - 1 >>> CHUNK_BITS) + 1;
+		int[] keys = new int[chunkCount];
+		Object[] containers = new Object[chunkCount];
+		int size = 0;
+		long[] words = bits.toLongArray();
+		for (int i = 0; i < chunkCount; i++) {
+			int from = i * WORD_COUNT;
+			if (from >= words.length) {
+				break;
+			}
+			long[] chunk = Arrays.copyOfRange(words, from, from + WORD_COUNT);
+			Object container = normalize(chunk, getCardinality(chunk));
+			if (container != null) {
+				keys[size] = i;
+				containers[size++] = container;
+			}
+		}
+		return new TokenBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(
+				containers, size));
+	}
+
+	/**
+	 * Gets the number of tokens in the bitmap.
+	 * 
+	 * @return the cardinality of the set
+	 */
+	public int getCardinality() {
+		int cardinality = 0;
+		for (Object container : containers) {
+			cardinality += getCardinality(container);
+		}
+		return cardinality;
+	}
+
+	/**
+	 * Determines if the bitmap is empty.
+	 * 
+	 * @return <code>true</code> if the bitmap holds no tokens
+	 */
+	public boolean isEmpty() {
+		return containers.length == 0;
+	}
+
+	/**
+	 * Determines if the bitmap holds the token with the specified ordinal.
+	 * 
+	 * @param ordinal
+	 *            the ordinal of the token
+	 * 
+	 * @return <code>true</code> if the bitmap holds the token
+	 */
+	public boolean contains(int ordinal) {
+		int index = Arrays.binarySearch(keys, ordinal >>> CHUNK_BITS);
+		return index >= 0
+				&& contains(containers[index], (char) (ordinal & CHUNK_MASK));
+	}
+
+	/**
+	 * Gets the ordinals of the tokens in the bitmap, in ascending order.
+	 * 
+	 * @return an array of token ordinals
+	 */
+	public int[] toArray() {
+		int[] ordinals = new int[getCardinality()];
+		int size = 0;
+		for (int i = 0; i < keys.length; i++) {
+			int high = keys[i] << CHUNK_BITS;
+			Object container = containers[i];
+			if (container instanceof char[]) {
+				for (char value : (char[]) container) {
+					ordinals[size++] = high | value;
+				}
+			} else {
+				long[] words = (long[]) container;
+				for (int j = 0; j < WORD_COUNT; j++) {
+					long word = words[j];
+					while (word != 0) {
+						ordinals[size++] = high | j << 6
+								| Long.numberOfTrailingZeros(word);
+						word &= word - 1;
+					}
+				}
+			}
+		}
+		return ordinals;
+	}
+
+	/**
+	 * Gets an {@link AnalysisTable} listing the tokens in the bitmap, in the
+	 * same format as {@link TokenSearch#getResults()}.
+	 * 
+	 * @param encodingType
+	 *            the encoding scheme to use for the token text
+	 * 
+	 * @return an analysis table listing each token
+	 */
+	public AnalysisTable toTable(EncodingType encodingType) {
+		return toTable(toArray(), encodingType);
+	}
+
+	static AnalysisTable toTable(int[] ordinals, EncodingType encodingType) {
+
+		// Initiate an analysis table.
+		AnalysisTable table = new AnalysisTable("ChapterNumber", "VerseNumber",
+				"TokenNumber", "Token");
+
+		// List each token in order.
+		TokenCorpus corpus = TokenCorpus.getCorpus(encodingType, false);
+		for (int ordinal : ordinals) {
+			Location location = Document.getTokenLocation(ordinal);
+			table.add(location.getChapterNumber(), location.getVerseNumber(),
+					location.getTokenNumber(), corpus.getTokenText(ordinal));
+		}
+
+		// Return the table.
+		return table;
+	}
+
+	/**
+	 * Gets the intersection of this bitmap with another bitmap.
+	 * 
+	 * @param bitmap
+	 *            the other bitmap
+	 * 
+	 * @return a new bitmap holding tokens in both bitmaps
+	 */
+	public TokenBitmap and(TokenBitmap bitmap) {
+
+		// Only chunks in both bitmaps can be in the intersection.
+		int size = Math.min(keys.length, bitmap.keys.length);
+		int[] keys = new int[size];
+		Object[] containers = new Object[size];
+		size = 0;
+		int i = 0;
+		int j = 0;
+		while (i < this.keys.length && j < bitmap.keys.length) {
+			if (this.keys[i] < bitmap.keys[j]) {
+				i++;
+			} else if (this.keys[i] > bitmap.keys[j]) {
+				j++;
+			} else {
+				Object container = and(this.containers[i++],
+						bitmap.containers[j++]);
+				if (container != null) {
+					keys[size] = this.keys[i - 1];
+					containers[size++] = container;
+				}
+			}
+		}
+		return new TokenBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(
+				containers, size));
+	}
+
+	/**
+	 * Gets the union of this bitmap with another bitmap.
+	 * 
+	 * @param bitmap
+	 *            the other bitmap
+	 * 
+	 * @return a new bitmap holding tokens in either bitmap
+	 */
+	public TokenBitmap or(TokenBitmap bitmap) {
+
+		// Merge chunks from both bitmaps.
+		int size = keys.length + bitmap.keys.length;
+		int[] keys = new int[size];
+		Object[] containers = new Object[size];
+		size = 0;
+		int i = 0;
+		int j = 0;
+		while (i < this.keys.length || j < bitmap.keys.length) {
+			if (j == bitmap.keys.length
+					|| (i < this.keys.length && this.keys[i] < bitmap.keys[j])) {
+				keys[size] = this.keys[i];
+				containers[size++] = this.containers[i++];
+			} else if (i == this.keys.length || this.keys[i] > bitmap.keys[j]) {
+				keys[size] = bitmap.keys[j];
+				containers[size++] = bitmap.containers[j++];
+			} else {
+				keys[size] = this.keys[i];
+				containers[size++] = or(this.containers[i++],
+						bitmap.containers[j++]);
+			}
+		}
+		return new TokenBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(
+				containers, size));
+	}
+
+	/**
+	 * Gets the difference of this bitmap with another bitmap.
+	 * 
+	 * @param bitmap
+	 *            the other bitmap
+	 * 
+	 * @return a new bitmap holding tokens in this bitmap, but not in the other
+	 *         bitmap
+	 */
+	public TokenBitmap andNot(TokenBitmap bitmap) {
+
+		// Remove matching chunks from each chunk in this bitmap.
+		int[] keys = new int[this.keys.length];
+		Object[] containers = new Object[this.keys.length];
+		int size = 0;
+		int j = 0;
+		for (int i = 0; i < this.keys.length; i++) {
+			while (j < bitmap.keys.length && bitmap.keys[j] < this.keys[i]) {
+				j++;
+			}
+			Object container = j < bitmap.keys.length
+					&& bitmap.keys[j] == this.keys[i] ? andNot(
+					this.containers[i], bitmap.containers[j])
+					: this.containers[i];
+			if (container != null) {
+				keys[size] = this.keys[i];
+				containers[size++] = container;
+			}
+		}
+		return new TokenBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(
+				containers, size));
+	}
+
+	/**
+	 * Gets the complement of this bitmap, relative to all tokens in the
+	 * Quranic text.
+	 * 
+	 * @return a new bitmap holding tokens not in this bitmap
+	 */
+	public TokenBitmap not() {
+		return getAll().andNot(this);
+	}
+
+	private static Object and(Object container1, Object container2) {
+
+		// Array and array.
+		if (container1 instanceof char[] && container2 instanceof char[]) {
+			char[] values1 = (char[]) container1;
+			char[] values2 = (char[]) container2;
+			char[] values = new char[Math.min(values1.length, values2.length)];
+			int size = 0;
+			int i = 0;
+			int j = 0;
+			while (i < values1.length && j < values2.length) {
+				if (values1[i] < values2[j]) {
+					i++;
+				} else if (values1[i] > values2[j]) {
+					j++;
+				} else {
+					values[size++] = values1[i];
+					i++;
+					j++;
+				}
+			}
+			return size > 0 ? Arrays.copyOf(values, size) : null;
+		}
+
+		// Array and bitmap.
+		if (container1 instanceof char[] || container2 instanceof char[]) {
+			boolean isArray = container1 instanceof char[];
+			return filter((char[]) (isArray ? container1 : container2),
+					(long[]) (isArray ? container2 : container1), true);
+		}
+
+		// Bitmap and bitmap.
+		long[] words1 = (long[]) container1;
+		long[] words2 = (long[]) container2;
+		long[] words = new long[WORD_COUNT];
+		int cardinality = 0;
+		for (int i = 0; i < WORD_COUNT; i++) {
+			words[i] = words1[i] & words2[i];
+			cardinality += Long.bitCount(words[i]);
+		}
+		return normalize(words, cardinality);
+	}
+
+	private static Object or(Object container1, Object container2) {
+
+		// Array or array, when small enough to remain an array.
+		if (container1 instanceof char[]
+				&& container2 instanceof char[]
+				&& ((char[]) container1).length + ((char[]) container2).length <= ARRAY_LIMIT) {
+			char[] values1 = (char[]) container1;
+			char[] values2 = (char[]) container2;
+			char[] values = new char[values1.length + values2.length];
+			int size = 0;
+			int i = 0;
+			int j = 0;
+			while (i < values1.length || j < values2.length) {
+				if (j == values2.length
+						|| (i < values1.length && values1[i] < values2[j])) {
+					values[size++] = values1[i++];
+				} else if (i == values1.length || values1[i] > values2[j]) {
+					values[size++] = values2[j++];
+				} else {
+					values[size++] = values1[i++];
+					j++;
+				}
+			}
+			return Arrays.copyOf(values, size);
+		}
+
+		// Otherwise, combine as bitmaps.
+		long[] words = toBitmap(container1);
+		if (container2 instanceof char[]) {
+			for (char value : (char[]) container2) {
+				words[value >>> 6] |= 1L << value;
+			}
+		} else {
+			long[] words2 = (long[]) container2;
+			for (int i = 0; i < WORD_COUNT; i++) {
+				words[i] |= words2[i];
+			}
+		}
+		return normalize(words, getCardinality(words));
+	}
+
+	private static Object andNot(Object container1, Object container2) {
+
+		// Array and not array.
+		if (container1 instanceof char[] && container2 instanceof char[]) {
+			char[] values1 = (char[]) container1;
+			char[] values2 = (char[]) container2;
+			char[] values = new char[values1.length];
+			int size = 0;
+			int j = 0;
+			for (char value : values1) {
+				while (j < values2.length && values2[j] < value) {
+					j++;
+				}
+				if (j == values2.length || values2[j] != value) {
+					values[size++] = value;
+				}
+			}
+			return size > 0 ? Arrays.copyOf(values, size) : null;
+		}
+
+		// Array and not bitmap.
+		if (container1 instanceof char[]) {
+			return filter((char[]) container1, (long[]) container2, false);
+		}
+
+		// Bitmap and not array or bitmap.
+		long[] words = ((long[]) container1).clone();
+		if (container2 instanceof char[]) {
+			for (char value : (char[]) container2) {
+				words[value >>> 6] &= ~(1L << value);
+			}
+		} else {
+			long[] words2 = (long[]) container2;
+			for (int i = 0; i < WORD_COUNT; i++) {
+				words[i] &= ~words2[i];
+			}
+		}
+		return normalize(words, getCardinality(words));
+	}
+
+	private static char[] filter(char[] values, long[] words, boolean isSet) {
+
+		// Keep values which are either set or not set in the bitmap.
+		char[] result = new char[values.length];
+		int size = 0;
+		for (char value : values) {
+			if (((words[value >>> 6] & 1L << value) != 0) == isSet) {
+				result[size++] = value;
+			}
+		}
+		return size > 0 ? Arrays.copyOf(result, size) : null;
+	}
+
+	private static Object normalize(long[] words, int cardinality) {
+
+		// Use an array for sparse chunks, and remove empty chunks.
+		if (cardinality == 0) {
+			return null;
+		}
+		if (cardinality > ARRAY_LIMIT) {
+			return words;
+		}
+		char[] values = new char[cardinality];
+		int size = 0;
+		for (int i = 0; i < WORD_COUNT; i++) {
+			long word = words[i];
+			while (word != 0) {
+				values[size++] = (char) (i << 6 | Long
+						.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+		return values;
+	}
+
+	private static long[] toBitmap(Object container) {
+		if (container instanceof long[]) {
+			return ((long[]) container).clone();
+		}
+		long[] words = new long[WORD_COUNT];
+		for (char value : (char[]) container) {
+			words[value >>> 6] |= 1L << value;
+		}
+		return words;
+	}
+
+	private static boolean contains(Object container, char value) {
+		if (container instanceof char[]) {
+			return Arrays.binarySearch((char[]) container, value) >= 0;
+		}
+		return (((long[]) container)[value >>> 6] & 1L << value) != 0;
+	}
+
+	private static int getCardinality(Object container) {
+		if (container instanceof char[]) {
+			return ((char[]) container).length;
+		}
+		int cardinality = 0;
+		for (long word : (long[]) container) {
+			cardinality += Long.bitCount(word);
+		}
+		return cardinality;
+	}
+}
@@ -0,0 +1,112 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import java.util.Arrays;
+
+import org.jqurantree.arabic.ByteFormat;
+import org.jqurantree.arabic.encoding.ArabicEncoder;
+import org.jqurantree.arabic.encoding.EncodingFactory;
+import org.jqurantree.arabic.encoding.EncodingType;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.TokenCursor;
+
+class TokenCorpus {
+
+	public static final char SEPARATOR = 0;
+	private static final TokenCorpus[] corpora = new TokenCorpus[EncodingType
+			.values().length * 2];
+	private final char[] text;
+	private final int[] tokenOffsets;
+
+	public static synchronized TokenCorpus getCorpus(
+			EncodingType encodingType, boolean isRemoveDiacritics) {
+
+		// Encode the corpus on first use.
+		int index = encodingType.ordinal() * 2 + (isRemoveDiacritics ? 1 : 0);
+		TokenCorpus corpus = corpora[index];
+		if (corpus == null) {
+			corpus = new TokenCorpus(encodingType, isRemoveDiacritics);
+			corpora[index] = corpus;
+		}
+		return corpus;
+	}
+
+	private TokenCorpus(EncodingType encodingType, boolean isRemoveDiacritics) {
+
+		// Initiate.
+		ArabicEncoder encoder = EncodingFactory.getEncoder(encodingType);
+		int tokenCount = Document.getTokenCount();
+		tokenOffsets = new int[tokenCount + 1];
+		StringBuilder text = new StringBuilder();
+		byte[] characters = new byte[0];
+
+		// Encode each token, followed by a separator.
+		TokenCursor cursor = Document.getTokenCursor();
+		while (cursor.next()) {
+			tokenOffsets[cursor.getOrdinal()] = text.length();
+			byte[] buffer = cursor.getBuffer();
+			int offset = cursor.getOffset();
+			int length = cursor.getLength();
+
+			// Copy characters without diacritics.
+			if (isRemoveDiacritics) {
+				int byteCount = length * ByteFormat.CHARACTER_WIDTH;
+				if (characters.length < byteCount) {
+					characters = new byte[byteCount];
+				}
+				for (int i = 0; i < byteCount; i += ByteFormat.CHARACTER_WIDTH) {
+					characters[i] = buffer[offset + i];
+				}
+				buffer = characters;
+				offset = 0;
+			}
+
+			// Encode.
+			encoder.encode(buffer, offset, length, null, text);
+			text.append(SEPARATOR);
+		}
+		tokenOffsets[tokenCount] = text.length();
+
+		// Copy the text.
+		this.text = new char[text.length()];
+		text.getChars(0, this.text.length, this.text, 0);
+	}
+
+	public char[] getText() {
+		return text;
+	}
+
+	public int getTokenCount() {
+		return tokenOffsets.length - 1;
+	}
+
+	public int getTokenLength(int ordinal) {
+		return tokenOffsets[ordinal + 1] - tokenOffsets[ordinal] - 1;
+	}
+
+	public int getTokenOrdinal(int position) {
+		int index = Arrays.binarySearch(tokenOffsets, position);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	public String getTokenText(int ordinal) {
+		return new String(text, tokenOffsets[ordinal], getTokenLength(ordinal));
+	}
+}
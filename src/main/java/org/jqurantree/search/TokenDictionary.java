@@ -0,0 +1,213 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.jqurantree.arabic.encoding.EncodingType;
+
+class TokenDictionary {
+
+	private static final TokenDictionary[] dictionaries = new TokenDictionary[EncodingType
+			.values().length * 2];
+	private final TokenIndex index;
+	private final String[] types;
+	private final int[] typeIndices;
+	private final String[] reversedTypes;
+	private final int[] reversedTypeIndices;
+
+	public static synchronized TokenDictionary getDictionary(
+			EncodingType encodingType, boolean isRemoveDiacritics) {
+
+		// Build the dictionary on first use.
+		int index = encodingType.ordinal() * 2 + (isRemoveDiacritics ? 1 : 0);
+		TokenDictionary dictionary = dictionaries[index];
+		if (dictionary == null) {
+			dictionary = new TokenDictionary(TokenIndex.getIndex(encodingType,
+					isRemoveDiacritics));
+			dictionaries[index] = dictionary;
+		}
+		return dictionary;
+	}
+
+	private TokenDictionary(TokenIndex index) {
+
+		// Sort the distinct token types.
+		this.index = index;
+		int typeCount = index.getTypeCount();
+		types = new String[typeCount];
+		for (int i = 0; i < typeCount; i++) {
+			types[i] = index.getType(i);
+		}
+		Arrays.sort(types);
+
+		// Sort the reversed types.
+		reversedTypes = new String[typeCount];
+		for (int i = 0; i < typeCount; i++) {
+			reversedTypes[i] = reverse(types[i]);
+		}
+		Arrays.sort(reversedTypes);
+
+		// Note the index of each type in the inverted index.
+		typeIndices = new int[typeCount];
+		reversedTypeIndices = new int[typeCount];
+		for (int i = 0; i < typeCount; i++) {
+			typeIndices[i] = index.getTypeIndex(types[i]);
+			reversedTypeIndices[i] = index
+					.getTypeIndex(reverse(reversedTypes[i]));
+		}
+	}
+
+	public void findPrefix(String prefix, BitSet results) {
+		find(types, typeIndices, prefix, results);
+	}
+
+	public void findSuffix(String suffix, BitSet results) {
+		find(reversedTypes, reversedTypeIndices, reverse(suffix), results);
+	}
+
+	private void find(String[] types, int[] typeIndices, String prefix,
+			BitSet results) {
+
+		// Binary search for the first type not less than the prefix.
+		int low = 0;
+		int high = types.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (types[middle].compareTo(prefix) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		// Types starting with the prefix are in a single range.
+		for (int i = low; i < types.length && types[i].startsWith(prefix); i++) {
+			index.find(typeIndices[i], results);
+		}
+	}
+
+	public void findFuzzy(String text, int maxDistance, BitSet results) {
+
+		// Initiate the first row of the Levenshtein automaton's state, for
+		// the empty prefix.
+		int length = text.length();
+		int[][] rows = new int[1][];
+		rows[0] = new int[length + 1];
+		for (int i = 0; i <= length; i++) {
+			rows[0][i] = i;
+		}
+
+		// Visit types in sorted order, so that the state for a common prefix
+		// with the previous type is reused.
+		String previous = "";
+		int validDepth = 0;
+		int i = 0;
+		while (i < types.length) {
+			String type = types[i];
+
+			// Reuse rows for the common prefix.
+			int depth = Math.min(getCommonPrefixLength(previous, type),
+					validDepth);
+			previous = type;
+
+			// Advance the automaton for each subsequent character.
+			boolean isPruned = false;
+			while (depth < type.length()) {
+				if (rows.length <= depth + 1) {
+					rows = Arrays.copyOf(rows, rows.length * 2);
+				}
+				if (rows[depth + 1] == null) {
+					rows[depth + 1] = new int[length + 1];
+				}
+				int minimum = step(rows[depth], rows[depth + 1], text, type
+						.charAt(depth), depth + 1);
+				depth++;
+
+				// No type with this prefix can match.
+				if (minimum > maxDistance) {
+					isPruned = true;
+					break;
+				}
+			}
+			validDepth = depth;
+
+			// Skip types sharing a pruned prefix.
+			if (isPruned) {
+				i = getUpperBound(type.substring(0, depth), i);
+				continue;
+			}
+
+			// Accept the type.
+			if (rows[depth][length] <= maxDistance) {
+				index.find(typeIndices[i], results);
+			}
+			i++;
+		}
+	}
+
+	private static int step(int[] row, int[] nextRow, String text, char ch,
+			int depth) {
+
+		// Compute the edit distance of each query prefix to the type prefix.
+		nextRow[0] = depth;
+		int minimum = depth;
+		int length = text.length();
+		for (int i = 1; i <= length; i++) {
+			int cost = text.charAt(i - 1) == ch ? 0 : 1;
+			int distance = Math.min(Math.min(row[i] + 1, nextRow[i - 1] + 1),
+					row[i - 1] + cost);
+			nextRow[i] = distance;
+			if (distance < minimum) {
+				minimum = distance;
+			}
+		}
+		return minimum;
+	}
+
+	private int getUpperBound(String prefix, int start) {
+
+		// Binary search for the first type not starting with the prefix.
+		int low = start;
+		int high = types.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (types[middle].startsWith(prefix)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private static String reverse(String text) {
+		return new StringBuilder(text).reverse().toString();
+	}
+
+	private static int getCommonPrefixLength(String text1, String text2) {
+		int length = Math.min(text1.length(), text2.length());
+		int i = 0;
+		while (i < length && text1.charAt(i) == text2.charAt(i)) {
+			i++;
+		}
+		return i;
+	}
+}
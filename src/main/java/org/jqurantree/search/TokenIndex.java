@@ -0,0 +1,122 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jqurantree.arabic.encoding.EncodingType;
+
+class TokenIndex {
+
+	private static final TokenIndex[] indexes = new TokenIndex[EncodingType
+			.values().length * 2];
+	private final Map<String, Integer> typeIndices = new HashMap<String, Integer>();
+	private final String[] types;
+	private final int[] typeOffsets;
+	private final int[] postings;
+
+	public static synchronized TokenIndex getIndex(EncodingType encodingType,
+			boolean isRemoveDiacritics) {
+
+		// Build the index on first use.
+		int index = encodingType.ordinal() * 2 + (isRemoveDiacritics ? 1 : 0);
+		TokenIndex tokenIndex = indexes[index];
+		if (tokenIndex == null) {
+			tokenIndex = new TokenIndex(TokenCorpus.getCorpus(encodingType,
+					isRemoveDiacritics));
+			indexes[index] = tokenIndex;
+		}
+		return tokenIndex;
+	}
+
+	private TokenIndex(TokenCorpus corpus) {
+
+		// Assign an index to each distinct token type, and count occurrences.
+		int tokenCount = corpus.getTokenCount();
+		int[] tokenTypes = new int[tokenCount];
+		int[] counts = new int[tokenCount];
+		for (int i = 0; i < tokenCount; i++) {
+			String text = corpus.getTokenText(i);
+			Integer typeIndex = typeIndices.get(text);
+			if (typeIndex == null) {
+				typeIndex = typeIndices.size();
+				typeIndices.put(text, typeIndex);
+			}
+			tokenTypes[i] = typeIndex;
+			counts[typeIndex]++;
+		}
+
+		// Token types.
+		int typeCount = typeIndices.size();
+		types = new String[typeCount];
+		for (Map.Entry<String, Integer> entry : typeIndices.entrySet()) {
+			types[entry.getValue()] = entry.getKey();
+		}
+
+		// Offsets into the postings, for each token type.
+		typeOffsets = new int[typeCount + 1];
+		for (int i = 0; i < typeCount; i++) {
+			typeOffsets[i + 1] = typeOffsets[i] + counts[i];
+		}
+
+		// Postings, in ascending order of token ordinal for each type.
+		postings = new int[tokenCount];
+		int[] positions = new int[typeCount];
+		System.arraycopy(typeOffsets, 0, positions, 0, typeCount);
+		for (int i = 0; i < tokenCount; i++) {
+			postings[positions[tokenTypes[i]]++] = i;
+		}
+	}
+
+	public int getTypeCount() {
+		return types.length;
+	}
+
+	public String getType(int typeIndex) {
+		return types[typeIndex];
+	}
+
+	public int getTypeIndex(String text) {
+		Integer typeIndex = typeIndices.get(text);
+		return typeIndex != null ? typeIndex : -1;
+	}
+
+	public int[] getOrdinals(String text) {
+		int typeIndex = getTypeIndex(text);
+		return typeIndex >= 0 ? Arrays.copyOfRange(postings,
+				typeOffsets[typeIndex], typeOffsets[typeIndex + 1]) : new int[0];
+	}
+
+	public void find(int typeIndex, BitSet results) {
+		int end = typeOffsets[typeIndex + 1];
+		for (int i = typeOffsets[typeIndex]; i < end; i++) {
+			results.set(postings[i]);
+		}
+	}
+
+	public void find(String text, BitSet results) {
+		int typeIndex = getTypeIndex(text);
+		if (typeIndex >= 0) {
+			find(typeIndex, results);
+		}
+	}
+}
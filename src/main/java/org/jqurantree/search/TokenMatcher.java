@@ -0,0 +1,63 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.jqurantree.arabic.ByteFormat;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.TokenCursor;
+
+class TokenMatcher {
+
+	private TokenMatcher() {
+	}
+
+	public static void find(List<SearchItem> items, BitSet results) {
+
+		// Compile all items into a single automaton, then check each token in
+		// the Quranic text with a single pass.
+		PatternAutomaton automaton = new PatternAutomaton(items);
+		TokenCursor cursor = Document.getTokenCursor();
+		while (cursor.next()) {
+			int ordinal = cursor.getOrdinal();
+			if (!results.get(ordinal)
+					&& automaton.isMatch(cursor.getBuffer(), cursor.getOffset(),
+							cursor.getLength())) {
+				results.set(ordinal);
+			}
+		}
+	}
+
+	public static boolean isMatch(byte[] query, byte[] buffer, int offset,
+			int characterCount, int diacriticMask) {
+
+		// Compare character types, then diacritics under the mask.
+		int byteCount = characterCount * ByteFormat.CHARACTER_WIDTH;
+		for (int i = 0; i < byteCount; i += ByteFormat.CHARACTER_WIDTH) {
+			if (query[i] != buffer[offset + i]
+					|| ((query[i + 1] ^ buffer[offset + i + 1]) & diacriticMask) != 0
+					|| ((query[i + 2] ^ buffer[offset + i + 2]) & diacriticMask) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
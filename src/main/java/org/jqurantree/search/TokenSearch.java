@@ -19,10 +19,17 @@
 package org.jqurantree.search;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.jqurantree.analysis.AnalysisTable;
+import org.jqurantree.arabic.ArabicText;
 import org.jqurantree.arabic.encoding.EncodingType;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
 import org.jqurantree.orthography.Document;
 import org.jqurantree.orthography.Token;
 
@@ -36,9 +43,14 @@ import org.jqurantree.orthography.Token;
  * comparisons will be performed using the specified encoding type.
  * <p>
  * Step 2. Define the search criteria through calls to
- * {@link #findToken(String)} and {@link #findSubstring(String)}.
+ * {@link #findToken(String)}, {@link #findSubstring(String)},
+ * {@link #findPrefix(String)}, {@link #findSuffix(String)} and the other
+ * <code>find</code> methods.
  * <p>
  * Step 3. Run the search by calling the {@link #getResults()} method.
+ * Alternatively, call {@link #getCount()} to count matches without listing
+ * them, {@link #getResults(int, int)} to list a page of matches, or
+ * {@link #ordinalStream()} to stream matches.
  * <p>
  * The results will be returned as an analysis table with 4 columns:
  * <p>
@@ -48,6 +60,27 @@ import org.jqurantree.orthography.Token;
  * The returned analysis table will list all matching tokens together with their
  * location. The search criteria are combined using a Boolean OR, so that if any
  * of the search criteria match, the token will be listed.
+ * <p>
+ * Exact token matches are looked up in an inverted index, built on first use,
+ * which maps each distinct token in the specified encoding to the ordinals of
+ * its occurrences. Substring matches are found by binary search of a suffix
+ * array over the encoded text of all tokens. Separate indexes are built for
+ * searches that are not sensitive to diacritics. Wildcard matches use an index
+ * of the letter n-grams in each token, ignoring diacritics, to find a small
+ * set of candidate tokens which are then verified. By default, trigrams are
+ * used. Prefix and suffix matches are found by a range scan of the distinct
+ * tokens, sorted forwards and by their reversed text. Fuzzy matches run a
+ * Levenshtein automaton over the sorted distinct tokens, sharing the
+ * automaton's state between tokens with a common prefix, and skipping all
+ * tokens with a prefix that cannot match.
+ * <p>
+ * Search criteria may also be specified as {@link ArabicText}. These are
+ * matched directly against the character data of each token, without encoding
+ * or allocating strings. All such criteria are compiled into a single
+ * Aho-Corasick automaton over character types, so that each token is checked
+ * in one pass regardless of the number of criteria. Diacritics are then
+ * verified for each candidate match, unless the criteria are not sensitive to
+ * diacritics.
  * 
  * @author Kais Dukes
  */
@@ -56,6 +89,7 @@ public class TokenSearch {
 	private final List<SearchItem> items = new ArrayList<SearchItem>();
 	private final EncodingType encodingType;
 	private final SearchOptions options;
+	private int gramLength = NGramIndex.DEFAULT_GRAM_LENGTH;
 
 	/**
 	 * Creates a new <code>TokenSearch</code> instance, using the specified
@@ -132,6 +166,214 @@ public class TokenSearch {
 		items.add(new SearchItem(SearchType.Substring, text, options));
 	}
 
+	/**
+	 * Counts the occurrences of a substring in the tokens of the Quran,
+	 * without listing them. A token containing the substring more than once is
+	 * counted once for each occurrence. The count is found from the bounds of
+	 * the substring in a sorted suffix index, so this does not visit each
+	 * match. The list of search criteria is not used or modified.
+	 * 
+	 * @param text
+	 *            the substring to count, in the specified encoding scheme
+	 * 
+	 * @return the number of occurrences
+	 */
+	public int getSubstringCount(String text) {
+		return getSubstringCount(text, options);
+	}
+
+	/**
+	 * Counts the occurrences of a substring in the tokens of the Quran, with
+	 * search options.
+	 * 
+	 * @param text
+	 *            the substring to count, in the specified encoding scheme
+	 * 
+	 * @param options
+	 *            the search options to use when counting
+	 * 
+	 * @return the number of occurrences
+	 * 
+	 * @see #getSubstringCount(String)
+	 */
+	public int getSubstringCount(String text, SearchOptions options) {
+		return SubstringIndex.getIndex(encodingType,
+				options == SearchOptions.RemoveDiacritics).getOccurrenceCount(
+				text);
+	}
+
+	/**
+	 * Adds a prefix match to the list of search criteria.
+	 * 
+	 * @param text
+	 *            the prefix to search for, in the specified encoding scheme
+	 */
+	public void findPrefix(String text) {
+		findPrefix(text, options);
+	}
+
+	/**
+	 * Adds a prefix match to the list of search criteria, with search options.
+	 * 
+	 * @param text
+	 *            the prefix to search for, in the specified encoding scheme
+	 * 
+	 * @param options
+	 *            the search options to use when performing this match
+	 */
+	public void findPrefix(String text, SearchOptions options) {
+		items.add(new SearchItem(SearchType.Prefix, text, options));
+	}
+
+	/**
+	 * Adds a suffix match to the list of search criteria.
+	 * 
+	 * @param text
+	 *            the suffix to search for, in the specified encoding scheme
+	 */
+	public void findSuffix(String text) {
+		findSuffix(text, options);
+	}
+
+	/**
+	 * Adds a suffix match to the list of search criteria, with search options.
+	 * 
+	 * @param text
+	 *            the suffix to search for, in the specified encoding scheme
+	 * 
+	 * @param options
+	 *            the search options to use when performing this match
+	 */
+	public void findSuffix(String text, SearchOptions options) {
+		items.add(new SearchItem(SearchType.Suffix, text, options));
+	}
+
+	/**
+	 * Sets the length of the letter n-grams indexed for wildcard matches,
+	 * between 1 and 5 inclusive. The default length is 3. Longer grams find
+	 * fewer candidate tokens for long patterns, but patterns with fewer
+	 * consecutive letters than the gram length check every token. Each length
+	 * uses a separate index, built on first use.
+	 * 
+	 * @param gramLength
+	 *            the n-gram length
+	 * 
+	 * @throws JQuranTreeException
+	 *             if the length is not between 1 and 5
+	 */
+	public void setGramLength(int gramLength) {
+		if (gramLength < 1 || gramLength > NGramIndex.MAX_GRAM_LENGTH) {
+			throw new JQuranTreeException(Errors.INVALID_GRAM_LENGTH);
+		}
+		this.gramLength = gramLength;
+	}
+
+	/**
+	 * Adds a wildcard match to the list of search criteria. The pattern
+	 * matches any token containing the pattern as a substring, where each
+	 * <code>'?'</code> in the pattern matches any single character. Wildcard
+	 * matches are not sensitive to diacritics. For example, the Buckwalter
+	 * pattern <code>"kt?b"</code> matches <i>kitaAba</i>, where the wildcard
+	 * matches the letter <i>Alif</i>.
+	 * 
+	 * @param pattern
+	 *            the pattern to search for, in the specified encoding scheme
+	 */
+	public void findWildcard(String pattern) {
+		items.add(new SearchItem(SearchType.Wildcard, pattern,
+				SearchOptions.RemoveDiacritics));
+	}
+
+	/**
+	 * Adds a fuzzy match to the list of search criteria. A token matches if
+	 * the edit distance between its text and the specified text is at most
+	 * the maximum distance. The edit distance is the number of single
+	 * character insertions, deletions or substitutions in the specified
+	 * encoding scheme, such as Buckwalter transliteration.
+	 * 
+	 * @param text
+	 *            the string to search for, in the specified encoding scheme
+	 * 
+	 * @param maxDistance
+	 *            the maximum edit distance
+	 */
+	public void findFuzzy(String text, int maxDistance) {
+		findFuzzy(text, maxDistance, options);
+	}
+
+	/**
+	 * Adds a fuzzy match to the list of search criteria, with search options.
+	 * 
+	 * @param text
+	 *            the string to search for, in the specified encoding scheme
+	 * 
+	 * @param maxDistance
+	 *            the maximum edit distance
+	 * 
+	 * @param options
+	 *            the search options to use when performing this match
+	 */
+	public void findFuzzy(String text, int maxDistance, SearchOptions options) {
+		if (maxDistance < 0) {
+			throw new JQuranTreeException(Errors.INVALID_EDIT_DISTANCE);
+		}
+		items.add(new SearchItem(SearchType.Fuzzy, text, maxDistance, options));
+	}
+
+	/**
+	 * Adds an exact match of Arabic text to the list of search criteria.
+	 * Unlike string criteria, the text is compared character by character in
+	 * the internal {@link org.jqurantree.arabic.ByteFormat}, without encoding.
+	 * 
+	 * @param text
+	 *            the Arabic text to search for
+	 */
+	public void findToken(ArabicText text) {
+		findToken(text, options);
+	}
+
+	/**
+	 * Adds an exact match of Arabic text to the list of search criteria, with
+	 * search options. If <code>SearchOptions.RemoveDiacritics</code> is
+	 * specified, then only the character types are compared.
+	 * 
+	 * @param text
+	 *            the Arabic text to search for
+	 * 
+	 * @param options
+	 *            the search options to use when performing this match
+	 */
+	public void findToken(ArabicText text, SearchOptions options) {
+		items.add(new SearchItem(SearchType.Token, text, options));
+	}
+
+	/**
+	 * Adds a substring match of Arabic text to the list of search criteria.
+	 * The substring must match whole characters, including all of their
+	 * diacritics.
+	 * 
+	 * @param text
+	 *            the Arabic text to search for
+	 */
+	public void findSubstring(ArabicText text) {
+		findSubstring(text, options);
+	}
+
+	/**
+	 * Adds a substring match of Arabic text to the list of search criteria,
+	 * with search options. If <code>SearchOptions.RemoveDiacritics</code> is
+	 * specified, then only the character types are compared.
+	 * 
+	 * @param text
+	 *            the Arabic text to search for
+	 * 
+	 * @param options
+	 *            the search options to use when performing this match
+	 */
+	public void findSubstring(ArabicText text, SearchOptions options) {
+		items.add(new SearchItem(SearchType.Substring, text, options));
+	}
+
 	/**
 	 * Gets an {@link AnalysisTable} holding the search results. The returned
 	 * analysis table will list all matching tokens together with their
@@ -141,75 +383,140 @@ public class TokenSearch {
 	 * @return an analysis table holding the search results
 	 */
 	public AnalysisTable getResults() {
+		return getBitmap().toTable(encodingType);
+	}
 
-		// Initiate an analysis table.
-		AnalysisTable table = new AnalysisTable("ChapterNumber", "VerseNumber",
-				"TokenNumber", "Token");
-
-		// Check if any the search requires removing diaciritcs.
-		boolean isRemoveDiacritics = false;
-		for (SearchItem item : items) {
-			if (item.getOptions() == SearchOptions.RemoveDiacritics) {
-				isRemoveDiacritics = true;
-				break;
-			}
+	/**
+	 * Gets an {@link AnalysisTable} holding a page of the search results. Only
+	 * the tokens in the page are listed, and matching stops after the last
+	 * token in the page, so this is more efficient than {@link #getResults()}
+	 * when only the first results are displayed. See {@link #ordinalStream()}.
+	 * 
+	 * @param offset
+	 *            the number of matching tokens to skip
+	 * 
+	 * @param limit
+	 *            the maximum number of matching tokens to list
+	 * 
+	 * @return an analysis table holding the page of search results
+	 */
+	public AnalysisTable getResults(int offset, int limit) {
+		if (offset < 0 || limit < 0) {
+			throw new JQuranTreeException(Errors.INVALID_PAGE);
 		}
+		return TokenBitmap.toTable(ordinalStream().skip(offset).limit(limit)
+				.toArray(), encodingType);
+	}
 
-		// Check each token in the Quranic text.
-		for (Token token : Document.getTokens()) {
+	/**
+	 * Gets the number of matching tokens, without listing them.
+	 * 
+	 * @return the number of matching tokens
+	 */
+	public int getCount() {
+		return find().cardinality();
+	}
 
-			// Encode token.
-			String diacriticText = token.toString(encodingType);
-			String cleanText = isRemoveDiacritics ? token.removeDiacritics()
-					.toString(encodingType) : null;
+	/**
+	 * Gets a stream of the ordinals of matching tokens, in order. String
+	 * criteria are first looked up in their indexes, at a cost proportional to
+	 * the number of matches. {@link ArabicText} criteria are then matched
+	 * lazily, one token at a time, so operations such as <code>limit()</code>
+	 * and <code>findFirst()</code> stop matching tokens after the last match
+	 * required. Ordinals may be converted to tokens or locations by
+	 * calling {@link Document#getTokenByOrdinal(int)} or
+	 * {@link Document#getTokenLocation(int)}.
+	 * 
+	 * @return a stream of token ordinals
+	 */
+	public IntStream ordinalStream() {
 
-			// Match token.
-			if (isMatch(diacriticText, cleanText)) {
-				table.add(token.getChapterNumber(), token.getVerseNumber(),
-						token.getTokenNumber(), diacriticText);
-			}
+		// Look up string criteria.
+		List<SearchItem> byteItems = new ArrayList<SearchItem>();
+		BitSet results = findIndexed(byteItems);
+		if (byteItems.isEmpty()) {
+			return results.stream();
 		}
 
-		// Return results.
-		return table;
+		// Match Arabic text criteria on demand.
+		return StreamSupport.intStream(new MatchSpliterator(
+				new PatternAutomaton(byteItems), results), false);
 	}
 
-	private boolean isMatch(String diacriticText, String cleanText) {
+	/**
+	 * Gets a stream of matching tokens, in order. The stream is evaluated
+	 * lazily, and each token is created on demand.
+	 * 
+	 * @return a stream of tokens
+	 */
+	public Stream<Token> tokenStream() {
+		return ordinalStream().mapToObj(Document::getTokenByOrdinal);
+	}
 
-		// Initiate.
-		boolean isValid = false;
+	/**
+	 * Gets a {@link TokenBitmap} holding the ordinals of all matching tokens.
+	 * The bitmap may be combined with the results of other searches, or scoped
+	 * to a range of chapters or verses, without listing the matching tokens.
+	 * 
+	 * @return a bitmap holding the search results
+	 */
+	public TokenBitmap getBitmap() {
+		return TokenBitmap.fromBitSet(find());
+	}
 
-		// Match each search item.
-		int size = items.size();
-		for (int i = 0; i < size; i++) {
-			if (isValid = isMatch(items.get(i), diacriticText, cleanText)) {
-				break;
-			}
+	private BitSet find() {
+
+		// Look up string criteria.
+		List<SearchItem> byteItems = new ArrayList<SearchItem>();
+		BitSet results = findIndexed(byteItems);
+
+		// Match Arabic text criteria against each token's character data.
+		if (!byteItems.isEmpty()) {
+			TokenMatcher.find(byteItems, results);
 		}
 
-		// Return match.
-		return isValid;
+		// Return results.
+		return results;
 	}
 
-	private boolean isMatch(SearchItem item, String diacriticText,
-			String cleanText) {
+	private BitSet findIndexed(List<SearchItem> byteItems) {
 
 		// Initiate.
-		boolean isValid;
-		String text = item.getOptions() == SearchOptions.RemoveDiacritics ? cleanText
-				: diacriticText;
+		BitSet results = new BitSet(Document.getTokenCount());
 
-		// Token.
-		if (item.getType() == SearchType.Token) {
-			isValid = text.equals(item.getText());
+		// Look up string criteria in the token and substring indexes. Arabic
+		// text criteria are added to the list of byte items.
+		for (SearchItem item : items) {
+			boolean isRemoveDiacritics = isRemoveDiacritics(item);
+			if (item.getBuffer() != null) {
+				byteItems.add(item);
+			} else if (item.getType() == SearchType.Token) {
+				TokenIndex.getIndex(encodingType, isRemoveDiacritics).find(
+						item.getText(), results);
+			} else if (item.getType() == SearchType.Prefix) {
+				TokenDictionary.getDictionary(encodingType, isRemoveDiacritics)
+						.findPrefix(item.getText(), results);
+			} else if (item.getType() == SearchType.Suffix) {
+				TokenDictionary.getDictionary(encodingType, isRemoveDiacritics)
+						.findSuffix(item.getText(), results);
+			} else if (item.getType() == SearchType.Fuzzy) {
+				TokenDictionary.getDictionary(encodingType, isRemoveDiacritics)
+						.findFuzzy(item.getText(), item.getMaxDistance(),
+								results);
+			} else if (item.getType() == SearchType.Wildcard) {
+				NGramIndex.getIndex(gramLength).find(
+						NGramIndex.parse(item.getText(), encodingType), results);
+			} else {
+				SubstringIndex.getIndex(encodingType, isRemoveDiacritics)
+						.find(item.getText(), results);
+			}
 		}
 
-		// Substring.
-		else {
-			isValid = text.contains(item.getText());
-		}
+		// Return results.
+		return results;
+	}
 
-		// Return match.
-		return isValid;
+	private boolean isRemoveDiacritics(SearchItem item) {
+		return item.getOptions() == SearchOptions.RemoveDiacritics;
 	}
 }
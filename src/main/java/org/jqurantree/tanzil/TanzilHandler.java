@@ -22,21 +22,24 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.jqurantree.arabic.ArabicText;
+import org.jqurantree.arabic.ByteFormat;
 import org.jqurantree.orthography.Chapter;
 import org.jqurantree.orthography.Document;
-import org.jqurantree.orthography.Verse;
+import org.jqurantree.orthography.DocumentBuffer;
 import org.xml.sax.Attributes;
 import org.xml.sax.helpers.DefaultHandler;
 
 class TanzilHandler extends DefaultHandler {
 
 	private int chapterNumber;
-	private ArabicText chapterName;
-	private ArabicText bismillah;
 	private static final String SURA_ELEMENT = "sura";
 	private static final String AYA_ELEMENT = "aya";
-	private final Chapter[] chapters = new Chapter[Document.getChapterCount()];
-	private final List<Verse> verses = new ArrayList<Verse>();
+	private final int chapterCount = Document.getChapterCount();
+	private final ArabicText[] chapterNames = new ArabicText[chapterCount];
+	private final ArabicText[] bismillahs = new ArabicText[chapterCount];
+	private final int[] chapterVerseCounts = new int[chapterCount];
+	private final List<ArabicText> verses = new ArrayList<ArabicText>();
+	private Chapter[] chapters;
 
 	public Chapter[] getChapters() {
 		return chapters;
@@ -55,7 +58,8 @@ class TanzilHandler extends DefaultHandler {
 
 			// Read the chapter name.
 			String chapterNameText = attributes.getValue("name");
-			chapterName = ArabicText.fromUnicode(chapterNameText);
+			chapterNames[chapterNumber - 1] = ArabicText
+					.fromUnicode(chapterNameText);
 		}
 
 		// Otherwise, if the element is an aya, then read a verse.
@@ -68,34 +72,74 @@ class TanzilHandler extends DefaultHandler {
 			// Get the verse text.
 			String text = attributes.getValue("text");
 
-			// Create then buffer the verse.
-			verses.add(new Verse(chapterNumber, verseNumber, text));
+			// Buffer the verse.
+			verses.add(ArabicText.fromUnicode(text));
+			chapterVerseCounts[chapterNumber - 1]++;
 
 			// If this is the first verse, get bismillah.
 			if (verseNumber == 1) {
 				String bismillahText = attributes.getValue("bismillah");
-				bismillah = bismillahText != null ? ArabicText
-						.fromUnicode(bismillahText) : null;
+				bismillahs[chapterNumber - 1] = bismillahText != null ? ArabicText
+						.fromUnicode(bismillahText)
+						: null;
 			}
 		}
 	}
-	
-	public void endElement(String uri, String localName, String qName) {
 
-		// If the element is a sura, then create a new chapter.
-		if (localName.equals(SURA_ELEMENT)) {
+	@Override
+	public void endDocument() {
+
+		// Count characters, including a whitespace delimiter between each
+		// verse.
+		int verseCount = verses.size();
+		int characterCount = verseCount - 1;
+		for (ArabicText verse : verses) {
+			characterCount += verse.getLength();
+		}
 
-			// Get the verses as an array.
-			int size = this.verses.size();
-			Verse[] verses = new Verse[size];
-			this.verses.toArray(verses);
+		// Pack the verses into a single buffer.
+		byte[] buffer = new byte[characterCount * ByteFormat.CHARACTER_WIDTH];
+		int[] verseTokenCounts = new int[verseCount];
+		int tokenCount = 0;
+		int offset = 0;
+		for (int i = 0; i < verseCount; i++) {
+
+			// Whitespace delimiter.
+			if (i > 0) {
+				buffer[offset] = ByteFormat.WHITESPACE;
+				offset += ByteFormat.CHARACTER_WIDTH;
+			}
 
-			// Reset the verses buffer for the next chapter.
-			this.verses.clear();
+			// Copy the verse.
+			byte[] verseBuffer = verses.get(i).toByteArray();
+			System.arraycopy(verseBuffer, 0, buffer, offset, verseBuffer.length);
+			offset += verseBuffer.length;
+
+			// Count tokens.
+			int size = 1;
+			for (int j = 0; j < verseBuffer.length; j += ByteFormat.CHARACTER_WIDTH) {
+				if (verseBuffer[j] == ByteFormat.WHITESPACE) {
+					size++;
+				}
+			}
+			verseTokenCounts[i] = size;
+			tokenCount += size;
+		}
 
-			// Create the chapter.
-			chapters[chapterNumber - 1] = new Chapter(chapterNumber,
-					chapterName, bismillah, verses);
+		// Get token offsets. Each token follows a whitespace delimiter, and
+		// the final entry is one character width past the end of the buffer.
+		int[] tokenOffsets = new int[tokenCount + 1];
+		int tokenIndex = 1;
+		for (offset = 0; offset < buffer.length; offset += ByteFormat.CHARACTER_WIDTH) {
+			if (buffer[offset] == ByteFormat.WHITESPACE) {
+				tokenOffsets[tokenIndex++] = offset
+						+ ByteFormat.CHARACTER_WIDTH;
+			}
 		}
+		tokenOffsets[tokenCount] = buffer.length + ByteFormat.CHARACTER_WIDTH;
+
+		// Create the chapters.
+		chapters = new DocumentBuffer(buffer, tokenOffsets, verseTokenCounts,
+				chapterVerseCounts, chapterNames, bismillahs).getChapters();
 	}
 }
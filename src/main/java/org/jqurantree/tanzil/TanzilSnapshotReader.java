@@ -0,0 +1,161 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.tanzil;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jqurantree.arabic.ArabicText;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
+import org.jqurantree.core.resource.ResourceUtil;
+import org.jqurantree.orthography.Chapter;
+import org.jqurantree.orthography.DocumentBuffer;
+
+/**
+ * Used internally to initiate the orthography model by reading the embedded
+ * binary snapshot written by {@link TanzilSnapshotWriter}. Since the snapshot
+ * holds text already decoded into the internal
+ * {@link org.jqurantree.arabic.ByteFormat}, this is considerably faster than
+ * reading the Tanzil XML. The snapshot is read directly into a
+ * {@link DocumentBuffer}.
+ * 
+ * @author Kais Dukes
+ */
+public class TanzilSnapshotReader {
+
+	/**
+	 * The path to the orthography model snapshot, as an embedded JAR resource.
+	 */
+	public static final String SNAPSHOT_RESOURCE_PATH = "/tanzil/quran-uthmani.dat";
+
+	static final int SNAPSHOT_MAGIC = 0x4A515453;
+	static final int SNAPSHOT_VERSION = 2;
+
+	/**
+	 * Loads the orthography model from the embedded snapshot.
+	 * 
+	 * @return a <code>Chapter[]</code> array, or <code>null</code> if the
+	 *         snapshot is not present or was written in a different format
+	 */
+	public Chapter[] read() {
+
+		// Check that the snapshot is present.
+		if (!ResourceUtil.exists(SNAPSHOT_RESOURCE_PATH)) {
+			return null;
+		}
+
+		// Read the snapshot.
+		InputStream stream = ResourceUtil.open(SNAPSHOT_RESOURCE_PATH);
+		try {
+			return read(stream);
+		} finally {
+			try {
+				stream.close();
+			} catch (IOException exception) {
+				throw new JQuranTreeException(Errors.RESOURCE_CLOSE_FAILED,
+						exception);
+			}
+		}
+	}
+
+	/**
+	 * Loads the orthography model from a snapshot input stream. The stream is
+	 * not closed.
+	 * 
+	 * @param stream
+	 *            the stream to read from
+	 * 
+	 * @return a <code>Chapter[]</code> array, or <code>null</code> if the
+	 *         snapshot was written in a different format
+	 */
+	public Chapter[] read(InputStream stream) {
+
+		try {
+			DataInputStream input = new DataInputStream(
+					new BufferedInputStream(stream));
+
+			// Header.
+			if (input.readInt() != SNAPSHOT_MAGIC
+					|| input.readInt() != SNAPSHOT_VERSION) {
+				return null;
+			}
+
+			// Chapters.
+			int chapterCount = input.readInt();
+			int[] verseCounts = new int[chapterCount];
+			ArabicText[] names = new ArabicText[chapterCount];
+			ArabicText[] bismillahs = new ArabicText[chapterCount];
+			int verseCount = 0;
+			for (int i = 0; i < chapterCount; i++) {
+				verseCounts[i] = input.readInt();
+				names[i] = readText(input);
+				bismillahs[i] = readText(input);
+				verseCount += verseCounts[i];
+			}
+
+			// Verse token counts.
+			int[] verseTokenCounts = readIntArray(input, verseCount);
+
+			// Character data.
+			byte[] buffer = new byte[input.readInt()];
+			input.readFully(buffer);
+
+			// Token offsets, followed by a final entry past the end of the
+			// buffer.
+			int tokenCount = 0;
+			for (int i = 0; i < verseCount; i++) {
+				tokenCount += verseTokenCounts[i];
+			}
+			int[] tokenOffsets = readIntArray(input, tokenCount + 1);
+
+			// Return the chapters.
+			return new DocumentBuffer(buffer, tokenOffsets, verseTokenCounts,
+					verseCounts, names, bismillahs).getChapters();
+
+		} catch (IOException exception) {
+			throw new JQuranTreeException(Errors.INVALID_SNAPSHOT, exception);
+		}
+	}
+
+	private ArabicText readText(DataInputStream input) throws IOException {
+
+		// A negative length represents a null value.
+		int length = input.readInt();
+		if (length < 0) {
+			return null;
+		}
+
+		// Read the character data.
+		byte[] buffer = new byte[length];
+		input.readFully(buffer);
+		return ArabicText.fromByteArray(buffer);
+	}
+
+	private int[] readIntArray(DataInputStream input, int size)
+			throws IOException {
+		int[] values = new int[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = input.readInt();
+		}
+		return values;
+	}
+}
@@ -0,0 +1,212 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.tanzil;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jqurantree.arabic.ArabicText;
+import org.jqurantree.arabic.ByteFormat;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
+import org.jqurantree.orthography.Chapter;
+import org.jqurantree.orthography.Token;
+import org.jqurantree.orthography.Verse;
+
+/**
+ * Used internally to precompile the orthography model into a binary snapshot,
+ * which is read by {@link TanzilSnapshotReader}. The snapshot holds the Tanzil
+ * text already decoded into the internal
+ * {@link org.jqurantree.arabic.ByteFormat}, so that loading the orthography
+ * model does not require XML parsing or Unicode decoding. This class is run as
+ * a build step after compilation, writing the snapshot as an embedded JAR
+ * resource.
+ * <p>
+ * The snapshot is written in the following order:
+ * <p>
+ * - A header holding the snapshot format version.<br/>
+ * - For each chapter, the verse count, name and <i>bismillah</i>.<br/>
+ * - For each verse, the token count.<br/>
+ * - The character data of all verses, packed into a single buffer with a
+ * whitespace delimiter between each verse.<br/>
+ * - The offset of each token in the packed buffer, followed by a final entry
+ * one character width past the end of the buffer.<br/>
+ * 
+ * @author Kais Dukes
+ */
+public class TanzilSnapshotWriter {
+
+	/**
+	 * Writes the snapshot to disk, after reading the orthography model from
+	 * the embedded Tanzil XML.
+	 * 
+	 * @param args
+	 *            a single argument, the path and name of the snapshot file
+	 */
+	public static void main(String[] args) {
+		Chapter[] chapters = new TanzilReader().readXml();
+		new TanzilSnapshotWriter().write(chapters, args[0]);
+	}
+
+	/**
+	 * Writes a snapshot of the orthography model to disk.
+	 * 
+	 * @param chapters
+	 *            the chapters of the orthography model
+	 * 
+	 * @param filename
+	 *            the path and name of the file, e.g. foo/bar.dat
+	 */
+	public void write(Chapter[] chapters, String filename) {
+		try {
+
+			// Create the parent directory if needed.
+			File file = new File(filename);
+			File directory = file.getAbsoluteFile().getParentFile();
+			if (directory != null) {
+				directory.mkdirs();
+			}
+
+			// Write the file, closing it even if writing fails.
+			OutputStream stream = new FileOutputStream(file);
+			try {
+				write(chapters, stream);
+			} finally {
+				stream.close();
+			}
+
+		} catch (IOException exception) {
+			throw new JQuranTreeException(Errors.SNAPSHOT_WRITE_FAILED,
+					exception);
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the orthography model to an output stream. The
+	 * stream is flushed but not closed.
+	 * 
+	 * @param chapters
+	 *            the chapters of the orthography model
+	 * 
+	 * @param stream
+	 *            the stream to write to
+	 */
+	public void write(Chapter[] chapters, OutputStream stream) {
+		try {
+			DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(stream));
+
+			// Header.
+			output.writeInt(TanzilSnapshotReader.SNAPSHOT_MAGIC);
+			output.writeInt(TanzilSnapshotReader.SNAPSHOT_VERSION);
+
+			// Chapters.
+			int tokenCount = 0;
+			output.writeInt(chapters.length);
+			for (Chapter chapter : chapters) {
+				output.writeInt(chapter.getVerseCount());
+				writeText(output, chapter.getName());
+				writeText(output, chapter.getBismillah());
+				tokenCount += chapter.getTokenCount();
+			}
+
+			// Verse token counts.
+			for (Chapter chapter : chapters) {
+				for (Verse verse : chapter) {
+					output.writeInt(verse.getTokenCount());
+				}
+			}
+
+			// Character data.
+			int[] tokenOffsets = new int[tokenCount];
+			int tokenIndex = 0;
+			int offset = 0;
+			output.writeInt(tokenCount > 0 ? getByteCount(chapters) : 0);
+			for (Chapter chapter : chapters) {
+				for (Verse verse : chapter) {
+
+					// Whitespace delimiter.
+					if (offset > 0) {
+						output.writeByte(ByteFormat.WHITESPACE);
+						output.writeByte(0);
+						output.writeByte(0);
+					}
+
+					// Note token offsets. Each token is followed by a single
+					// whitespace delimiter.
+					for (Token token : verse.getTokens()) {
+						tokenOffsets[tokenIndex++] = offset;
+						offset += (token.getLength() + 1)
+								* ByteFormat.CHARACTER_WIDTH;
+					}
+
+					// Verse.
+					output.write(verse.toByteArray());
+				}
+			}
+
+			// Token offsets, followed by a final entry one character width past
+			// the end of the buffer.
+			for (int i = 0; i < tokenCount; i++) {
+				output.writeInt(tokenOffsets[i]);
+			}
+			output.writeInt(offset);
+
+			// Flush.
+			output.flush();
+
+		} catch (IOException exception) {
+			throw new JQuranTreeException(Errors.SNAPSHOT_WRITE_FAILED,
+					exception);
+		}
+	}
+
+	private void writeText(DataOutputStream output, ArabicText text)
+			throws IOException {
+
+		// A negative length represents a null value.
+		if (text == null) {
+			output.writeInt(-1);
+		} else {
+			byte[] buffer = text.toByteArray();
+			output.writeInt(buffer.length);
+			output.write(buffer);
+		}
+	}
+
+	private int getByteCount(Chapter[] chapters) {
+
+		// Count verses and characters.
+		int verseCount = 0;
+		int characterCount = 0;
+		for (Chapter chapter : chapters) {
+			for (Verse verse : chapter) {
+				characterCount += verse.getLength();
+				verseCount++;
+			}
+		}
+
+		// Include a whitespace delimiter between each verse.
+		return (characterCount + verseCount - 1) * ByteFormat.CHARACTER_WIDTH;
+	}
+}
@@ -19,7 +19,19 @@
 package org.jqurantree.analysis;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jqurantree.arabic.ArabicText;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.Token;
+import org.jqurantree.orthography.Verse;
 import org.junit.Test;
 
 public class AnalysisTableTest {
@@ -108,8 +120,8 @@ public class AnalysisTableTest {
 		text.append("2 16 4\r\n");
 		text.append("1 16 4\r\n");
 		text.append("1 15 3\r\n");
-		text.append("1 21 2\r\n");
 		text.append("2 18 2\r\n");
+		text.append("1 21 2\r\n");
 		text.append("2 15 2\r\n");
 		text.append("1 17 2\r\n");
 		text.append("2 17 1\r\n");
@@ -150,11 +162,322 @@ public class AnalysisTableTest {
 		text.setLength(0);
 		text.append("N Count\r\n");
 		text.append("- -----\r\n");
-		text.append("M 3\r\n");
 		text.append("J 3\r\n");
-		text.append("A 2\r\n");
+		text.append("M 3\r\n");
 		text.append("P 2\r\n");
 		text.append("L 2\r\n");
+		text.append("H 2\r\n");
 		assertEquals(text.toString(), groupTable.toString(5));
 	}
+
+	@Test
+	public void testGroupKeys() {
+
+		// Create table.
+		AnalysisTable table = new AnalysisTable("A", "B");
+		table.add("a|b", "c");
+		table.add("a", "b|c");
+		table.add("a|b", "c");
+		table.add(1, "c");
+		table.add("1", "c");
+
+		// Group by A, B. Groups are in order of their first row.
+		AnalysisTable groupTable = table.group("A", "B");
+
+		// Validate.
+		StringBuilder text = new StringBuilder();
+		text.append("A   B   Count\r\n");
+		text.append("-   -   -----\r\n");
+		text.append("a|b c   2\r\n");
+		text.append("a   b|c 1\r\n");
+		text.append("1   c   2\r\n");
+		assertEquals(text.toString(), groupTable.toString());
+	}
+
+	@Test
+	public void testGroupText() {
+
+		// Tokens and copies of their text from the first 2 chapters.
+		AnalysisTable table = new AnalysisTable("Token", "Text");
+		Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+		for (int i = 0; i < 50; i++) {
+			Token token = Document.getTokenByOrdinal(i);
+			String text = token.toBuckwalter();
+			table.add(token, ArabicText.fromBuckwalter(text));
+			Integer count = counts.get(text);
+			counts.put(text, count == null ? 1 : count + 1);
+		}
+		assertTrue(table.getColumn(0) instanceof TextColumn);
+		assertTrue(table.getColumn(1) instanceof TextColumn);
+
+		// Group by each column. Groups are in order of their first row.
+		for (int i = 0; i < 2; i++) {
+			AnalysisTable groupTable = table.group(i == 0 ? "Token" : "Text");
+			assertEquals(counts.size(), groupTable.getRowCount());
+			int rowIndex = 0;
+			for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+				assertEquals(entry.getKey(), ((ArabicText) groupTable
+						.getValue(rowIndex, 0)).toBuckwalter());
+				assertEquals(entry.getValue(), groupTable.getValue(
+						rowIndex++, 1));
+			}
+		}
+	}
+
+	@Test
+	public void testGroupAggregates() {
+
+		// Create table.
+		AnalysisTable table = new AnalysisTable("Chapter", "Verse", "Length",
+				"Initials");
+		table.add(2, 1, 3, "alm");
+		table.add(2, 2, 12, "");
+		table.add(3, 1, 3, "alm");
+		table.add(2, 3, 9, "");
+		table.add(3, 2, 6, "");
+		table.add(3, 3, 3, "");
+
+		// Group by chapter.
+		AnalysisTable groupTable = table.group(new String[] { "Chapter" },
+				Aggregate.sum("Length"), Aggregate.min("Length"), Aggregate
+						.max("Length"), Aggregate.average("Length"), Aggregate
+						.countDistinct("Length"), Aggregate.first("Initials"),
+				new Aggregate(AggregateType.Last, "Verse", "LastVerse"));
+
+		// Validate.
+		StringBuilder text = new StringBuilder();
+		text.append("Chapter Count SumLength MinLength MaxLength "
+				+ "AverageLength CountDistinctLength FirstInitials LastVerse\r\n");
+		text.append("------- ----- --------- --------- --------- "
+				+ "------------- ------------------- ------------- ---------\r\n");
+		text.append("2       3     24        3         12        "
+				+ "8.0           3                   alm           3\r\n");
+		text.append("3       3     12        3         6         "
+				+ "4.0           2                   alm           3\r\n");
+		assertEquals(text.toString(), groupTable.toString());
+	}
+
+	@Test
+	public void testParallel() {
+
+		// Create tables, one sorted and grouped sequentially and the other in
+		// parallel.
+		AnalysisTable table1 = createTable(20000);
+		AnalysisTable table2 = createTable(20000);
+		table2.setParallelThreshold(1);
+
+		// Group.
+		String[] columnNames = new String[] { "Letter", "Number" };
+		Aggregate[] aggregates = new Aggregate[] { Aggregate.sum("Value"),
+				Aggregate.min("Value"), Aggregate.max("Value"),
+				Aggregate.countDistinct("Value"), Aggregate.first("Row"),
+				Aggregate.last("Row") };
+		AnalysisTable groupTable1 = table1.group(columnNames, aggregates);
+		AnalysisTable groupTable2 = table2.group(columnNames, aggregates);
+		assertEquals(groupTable1.toString(), groupTable2.toString());
+
+		// Sort.
+		table1.sort("Letter", SortOrder.Descending);
+		table2.sort("Letter", SortOrder.Descending);
+		assertEquals(table1.toString(), table2.toString());
+		table1.sort("Value");
+		table2.sort("Value");
+		assertEquals(table1.toString(), table2.toString());
+		table1.sort(SortKey.descending("Number"), SortKey.ascending("Row"));
+		table2.sort(SortKey.descending("Number"), SortKey.ascending("Row"));
+		assertEquals(table1.toString(), table2.toString());
+	}
+
+	@Test
+	public void testInvalidRowSize() {
+		AnalysisTable table = new AnalysisTable("A", "B");
+		for (Object[] values : new Object[][] { { 1 }, { 1, 2, 3 } }) {
+			try {
+				table.add(values);
+				fail();
+			} catch (JQuranTreeException exception) {
+				assertEquals(Errors.INVALID_ROW_SIZE, exception.getMessage());
+			}
+		}
+		assertEquals(0, table.getRowCount());
+	}
+
+	@Test
+	public void testInvalidParallelThreshold() {
+		AnalysisTable table = createTable(10);
+		for (int parallelThreshold : new int[] { 0, -1 }) {
+			try {
+				table.setParallelThreshold(parallelThreshold);
+				fail();
+			} catch (JQuranTreeException exception) {
+				assertEquals(Errors.INVALID_PARALLEL_THRESHOLD, exception
+						.getMessage());
+			}
+		}
+		assertEquals(AnalysisTable.DEFAULT_PARALLEL_THRESHOLD, table
+				.getParallelThreshold());
+	}
+
+	@Test
+	public void testMultiKeySort() {
+
+		// Create table.
+		AnalysisTable table = new AnalysisTable("Token", "Chapter", "Count");
+		table.add(ArabicText.fromBuckwalter("qamar"), 54, 2);
+		table.add(ArabicText.fromBuckwalter("$ams"), 91, 2);
+		table.add(ArabicText.fromBuckwalter("qamaru"), 54, 2);
+		table.add(ArabicText.fromBuckwalter("najm"), 53, 1);
+		table.add(ArabicText.fromBuckwalter("$ams"), 81, 3);
+
+		// Sort by count, then by chapter.
+		table.sort(SortKey.descending("Count"), SortKey.ascending("Chapter"));
+
+		// Validate.
+		StringBuilder text = new StringBuilder();
+		text.append("$ams 81 3\r\n");
+		text.append("qamar 54 2\r\n");
+		text.append("qamaru 54 2\r\n");
+		text.append("$ams 91 2\r\n");
+		text.append("najm 53 1\r\n");
+		assertEquals(text.toString(), getTableText(table));
+
+		// Sort by text, in order of character type, then diacritics.
+		table.sort(SortKey.ascending("Token"), SortKey.descending("Chapter"));
+		assertEquals("$ams", getTokenText(table, 0));
+		assertEquals("qamar", getTokenText(table, 2));
+		assertEquals("qamaru", getTokenText(table, 3));
+		assertEquals("najm", getTokenText(table, 4));
+		assertEquals(91, table.getInteger(0, "Chapter"));
+		assertEquals(81, table.getInteger(1, "Chapter"));
+	}
+
+	@Test
+	public void testTop() {
+
+		// Find top rows, for tables of different sizes.
+		for (int rowCount : new int[] { 0, 1, 5, 100, 1000 }) {
+			AnalysisTable table = createTable(rowCount);
+			for (int count : new int[] { 0, 1, 3, 50, 2000 }) {
+				AnalysisTable topTable = table.top(count, SortKey
+						.descending("Letter"), SortKey.ascending("Value"));
+				AnalysisTable topTable2 = table.top(count, "Number",
+						SortOrder.Descending);
+
+				// Validate against a full sort.
+				AnalysisTable sortTable = createTable(rowCount);
+				sortTable.sort(SortKey.descending("Letter"), SortKey
+						.ascending("Value"));
+				int size = Math.min(count, rowCount);
+				assertEquals(size, topTable.getRowCount());
+				assertEquals(sortTable.toString(size), topTable.toString());
+				sortTable = createTable(rowCount);
+				sortTable.sort("Number", SortOrder.Descending);
+				assertEquals(sortTable.toString(size), topTable2.toString());
+			}
+		}
+	}
+
+	@Test
+	public void testColumnTypes() {
+
+		// Create table.
+		AnalysisTable table = new AnalysisTable("Number", "Name", "Order",
+				"Text");
+		table.add(3, "qamar", SortOrder.Descending, ArabicText
+				.fromBuckwalter("qamar"));
+		table.add(1, "$ams", SortOrder.Ascending, ArabicText
+				.fromBuckwalter("$ams"));
+		table.add("two", "qamar", SortOrder.Ascending, ArabicText
+				.fromBuckwalter("najm"));
+
+		// Validate typed values.
+		assertEquals(3, table.getInteger(0, "Number"));
+		assertEquals(1, table.getValue(1, "Number"));
+		assertEquals("two", table.getValue(2, "Number"));
+		assertEquals("qamar", table.getString(2, "Name"));
+		assertEquals(SortOrder.Descending, table.getValue(0, "Order"));
+		assertTrue(table.getValue(1, "Text") instanceof ArabicText);
+		assertEquals("najm", ((ArabicText) table.getValue(2, "Text"))
+				.toBuckwalter());
+
+		// Sort.
+		table.sort("Name");
+
+		// Validate rows.
+		Iterator<Object[]> rows = table.iterator();
+		assertEquals("1 $ams Ascending", getRowText(rows.next()));
+		assertEquals("3 qamar Descending", getRowText(rows.next()));
+		assertEquals("two qamar Ascending", getRowText(rows.next()));
+		assertEquals(false, rows.hasNext());
+	}
+
+	@Test
+	public void testTextColumnTypes() {
+
+		// Create table.
+		AnalysisTable table = new AnalysisTable("Token", "Verse", "Text");
+		ArabicText text = ArabicText.fromBuckwalter("{lq~amaru");
+		for (int i = 0; i < 3; i++) {
+			table.add(Document.getTokenByOrdinal(10 - i), Document
+					.getVerseByOrdinal(i), i == 1 ? text.getSubstring(2, 5)
+					: ArabicText.fromBuckwalter(i == 0 ? "$ams" : "najm"));
+		}
+
+		// Tokens and verses keep their type.
+		Token token = (Token) table.getValue(0, "Token");
+		assertEquals(10, token.getOrdinal());
+		assertEquals(2, ((Verse) table.getValue(2, "Verse")).getOrdinal());
+		assertEquals("$ams", ((ArabicText) table.getValue(0, "Text"))
+				.toBuckwalter());
+		assertEquals("q~amaru", ((ArabicText) table.getValue(1, "Text"))
+				.toBuckwalter());
+		assertEquals("najm", ((ArabicText) table.getValue(2, "Text"))
+				.toBuckwalter());
+
+		// Sort by text in descending order, keeping types.
+		table.sort(SortKey.descending("Text"));
+		assertEquals("najm", ((ArabicText) table.getValue(0, "Text"))
+				.toBuckwalter());
+		assertEquals(8, ((Token) table.getValue(0, "Token")).getOrdinal());
+		assertEquals(9, ((Token) table.getValue(1, "Token")).getOrdinal());
+		assertEquals(0, ((Verse) table.getValue(2, "Verse")).getOrdinal());
+
+		// A different kind of text falls back to objects.
+		table.add(text, text, token);
+		assertEquals(text, table.getValue(3, "Token"));
+		assertEquals(token, table.getValue(3, "Text"));
+		assertEquals(8, ((Token) table.getValue(0, "Token")).getOrdinal());
+	}
+
+	private AnalysisTable createTable(int rowCount) {
+		AnalysisTable table = new AnalysisTable("Row", "Letter", "Number",
+				"Value");
+		for (int i = 0; i < rowCount; i++) {
+			int value = (i * 7919) % 1009;
+			table.add(i, String.valueOf((char) ('a' + value % 26)), value % 7,
+					value);
+		}
+		return table;
+	}
+
+	private String getTableText(AnalysisTable table) {
+		StringBuilder text = new StringBuilder();
+		for (Object[] row : table) {
+			text.append(((ArabicText) row[0]).toBuckwalter());
+			text.append(' ');
+			text.append(row[1]);
+			text.append(' ');
+			text.append(row[2]);
+			text.append("\r\n");
+		}
+		return text.toString();
+	}
+
+	private String getTokenText(AnalysisTable table, int rowIndex) {
+		return ((ArabicText) table.getValue(rowIndex, "Token")).toBuckwalter();
+	}
+
+	private String getRowText(Object[] row) {
+		return row[0] + " " + row[1] + " " + row[2];
+	}
 }
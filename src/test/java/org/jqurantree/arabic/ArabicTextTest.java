@@ -21,7 +21,15 @@ package org.jqurantree.arabic;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.jqurantree.arabic.encoding.EncodingType;
 import org.junit.Test;
 
 public class ArabicTextTest {
@@ -94,4 +102,69 @@ public class ArabicTextTest {
 		// We should have read 4 characters.
 		assertEquals(4, characterCount);
 	}
+
+	@Test
+	public void testAppendTo() {
+
+		// Initiate text.
+		ArabicText text = ArabicText.fromBuckwalter("bisomi {ll~ahi");
+		String expected = text.toUnicode();
+
+		// Append to a StringBuilder.
+		StringBuilder builder = new StringBuilder("(1:1) ");
+		text.appendTo(builder, EncodingType.Unicode);
+		assertEquals("(1:1) " + expected, builder.toString());
+
+		// Append to a Writer.
+		StringWriter writer = new StringWriter();
+		text.appendTo(writer, EncodingType.Buckwalter);
+		assertEquals("bisomi {ll~ahi", writer.toString());
+
+		// Append to a CharBuffer.
+		CharBuffer charBuffer = CharBuffer.allocate(64);
+		text.appendTo(charBuffer, EncodingType.Unicode);
+		charBuffer.flip();
+		assertEquals(expected, charBuffer.toString());
+
+		// Each character is written directly, without an intermediate string.
+		StringWriter fragments = new StringWriter() {
+
+			@Override
+			public StringWriter append(CharSequence csq) {
+				assertTrue(csq.length() <= 3);
+				return super.append(csq);
+			}
+		};
+		text.appendTo(fragments, EncodingType.Unicode);
+		assertEquals(expected, fragments.toString());
+	}
+
+	@Test
+	public void testWriteUtf8() {
+
+		// Write Unicode and Buckwalter text as UTF-8.
+		ArabicText text = ArabicText.fromBuckwalter("bisomi {ll~ahi");
+		ByteBuffer buffer = ByteBuffer.allocate(128);
+		text.writeUtf8(buffer, EncodingType.Unicode);
+		text.writeUtf8(buffer, EncodingType.Buckwalter);
+		buffer.flip();
+		assertEquals(text.toUnicode() + text.toBuckwalter(),
+				StandardCharsets.UTF_8.decode(buffer).toString());
+	}
+
+	@Test
+	public void testWriteUtf8Overflow() {
+
+		// A buffer without enough space is not written to.
+		ArabicText text = ArabicText.fromBuckwalter("bisomi {ll~ahi");
+		ByteBuffer buffer = ByteBuffer.allocate(text.toUnicode().length());
+		buffer.put((byte) 1);
+		try {
+			text.writeUtf8(buffer, EncodingType.Unicode);
+			fail();
+		} catch (BufferOverflowException exception) {
+			assertEquals(1, buffer.position());
+			assertEquals(0, buffer.get(1));
+		}
+	}
 }
@@ -19,10 +19,22 @@
 package org.jqurantree.arabic.encoding;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.jqurantree.arabic.ArabicText;
+import org.jqurantree.arabic.ByteFormat;
+import org.jqurantree.arabic.encoding.unicode.UnicodeEncoder;
 import org.jqurantree.core.error.Errors;
 import org.jqurantree.core.error.JQuranTreeException;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.Verse;
 import org.junit.Test;
 
 public class EncodingFactoryTest {
@@ -48,4 +60,194 @@ public class EncodingFactoryTest {
 			assertEquals(Errors.INVALID_ENCODING_TYPE, exception.getMessage());
 		}
 	}
+
+	@Test
+	public void testSharedInstances() {
+
+		// The factory should return the same instance for each call.
+		for (EncodingType encodingType : new EncodingType[] {
+				EncodingType.Unicode, EncodingType.Buckwalter }) {
+			assertSame(EncodingFactory.getEncoder(encodingType),
+					EncodingFactory.getEncoder(encodingType));
+			assertSame(EncodingFactory.getDecoder(encodingType),
+					EncodingFactory.getDecoder(encodingType));
+		}
+		assertSame(EncodingFactory.getEncoder(EncodingType.Simple),
+				EncodingFactory.getEncoder(EncodingType.Simple));
+	}
+
+	@Test
+	public void testConcurrentEncoding() {
+
+		// Encode and decode each verse in parallel, using shared instances.
+		List<String> expected = Document.verseStream().map(
+				Verse::toBuckwalter).collect(Collectors.toList());
+		List<String> actual = Document.verseStream().parallel().map(
+				verse -> ArabicText.fromUnicode(verse.toUnicode())
+						.toBuckwalter()).collect(Collectors.toList());
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testCachedEncoding() {
+
+		// Encode with a new encoder, so that the first use of each character
+		// populates the cache, then encode again from the cache.
+		for (int i = 0; i < 2; i++) {
+			ArabicEncoder encoder = i == 0 ? new UnicodeEncoder()
+					: EncodingFactory.getEncoder(EncodingType.Unicode);
+			for (int j = 0; j < 2; j++) {
+				assertEquals("\u0628\u0650\u0633\u0652\u0645\u0650 "
+						+ "\u0671\u0644\u0644\u0651\u064E\u0647\u0650",
+						encode(encoder, "bisomi {ll~ahi", null));
+				assertEquals("\u0627\u0653\u0645\u064E\u0646\u064E",
+						encode(encoder, "A^mana", null));
+				assertEquals("\u0622\u0645\u064E\u0646\u064E", encode(
+						encoder, "A^mana", EncodingOptions.CombineAlifWithMaddah));
+			}
+		}
+
+		// Compare each verse to encoding without the cache, with and without
+		// options.
+		ArabicEncoder sharedEncoder = EncodingFactory
+				.getEncoder(EncodingType.Unicode);
+		for (EncodingOptions options : new EncodingOptions[] { null,
+				EncodingOptions.CombineAlifWithMaddah }) {
+			for (Verse verse : Document.getVerses()) {
+				byte[] buffer = verse.toByteArray();
+				assertEquals(encodeUncached(buffer, options), sharedEncoder
+						.encode(buffer, 0, buffer.length
+								/ ByteFormat.CHARACTER_WIDTH, options));
+			}
+		}
+	}
+
+	@Test
+	public void testConcurrentCachedEncoding() throws InterruptedException {
+
+		// Expected text, encoded without the cache.
+		final List<Verse> verses = Document.verseStream().collect(
+				Collectors.toList());
+		final String[] expectedTexts = new String[verses.size()];
+		for (int i = 0; i < expectedTexts.length; i++) {
+			expectedTexts[i] = encodeUncached(verses.get(i).toByteArray(), null);
+		}
+
+		// Populate the cache of a new encoder from several threads at once.
+		final ArabicEncoder encoder = new UnicodeEncoder();
+		final AtomicInteger failureCount = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			final int start = i * 1000;
+			threads[i] = new Thread(new Runnable() {
+				public void run() {
+					int size = expectedTexts.length;
+					for (int j = 0; j < size; j++) {
+						int index = (start + j) % size;
+						byte[] buffer = verses.get(index).toByteArray();
+						String text = encoder.encode(buffer, 0, buffer.length
+								/ ByteFormat.CHARACTER_WIDTH, null);
+						if (!text.equals(expectedTexts[index])) {
+							failureCount.incrementAndGet();
+						}
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		// Validate.
+		assertEquals(0, failureCount.get());
+	}
+
+	@Test
+	public void testBulkDecoding() {
+
+		// Decode a range of a char[] array.
+		ArabicDecoder decoder = EncodingFactory
+				.getDecoder(EncodingType.Buckwalter);
+		char[] text = "xx<iy~aAkaxx".toCharArray();
+		assertEquals("<iy~aAka", ArabicText.fromByteArray(decoder.decode(text, 2, 8))
+				.toBuckwalter());
+
+		// A diacritic with no preceding character is ignored.
+		assertEquals("ba", ArabicText.fromByteArray(decoder.decode("aba"))
+				.toBuckwalter());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedEncoderMethods() {
+
+		// An encoder overriding the deprecated methods, which write to the
+		// protected text field.
+		ArabicEncoder encoder = new UnicodeEncoder() {
+
+			@Override
+			protected void writeCharacterSeperator() {
+				text.append('|');
+			}
+
+			@Override
+			protected void encodeCharacter(byte[] buffer, int offset) {
+				text.append('[');
+				super.encodeCharacter(buffer, offset);
+				text.append(']');
+			}
+		};
+
+		// Encode.
+		assertEquals("[\u0642\u064E]|[\u0645\u064E]|[\u0631\u064C]", encode(
+				encoder, "qamarN", null));
+	}
+
+	@Test
+	public void testDefaultEncoderMethods() {
+
+		// An encoder implementing only the original method.
+		ArabicEncoder encoder = new ArabicEncoder() {
+			public String encode(byte[] buffer, int offset,
+					int characterCount, EncodingOptions options) {
+				return EncodingFactory.getEncoder(EncodingType.Buckwalter)
+						.encode(buffer, offset, characterCount, options);
+			}
+		};
+
+		// Encode.
+		byte[] buffer = ArabicText.fromBuckwalter("qamar").toByteArray();
+		int characterCount = buffer.length / ByteFormat.CHARACTER_WIDTH;
+		StringBuilder text = new StringBuilder("al");
+		encoder.encode(buffer, 0, characterCount, null, text);
+		ByteBuffer output = ByteBuffer.allocate(16);
+		encoder.encodeUtf8(buffer, 0, characterCount, null, output);
+		output.flip();
+
+		// Validate.
+		assertEquals("alqamar", text.toString());
+		assertEquals("qamar", StandardCharsets.UTF_8.decode(output).toString());
+	}
+
+	private String encode(ArabicEncoder encoder, String text,
+			EncodingOptions options) {
+		byte[] buffer = ArabicText.fromBuckwalter(text).toByteArray();
+		return encoder.encode(buffer, 0, buffer.length
+				/ ByteFormat.CHARACTER_WIDTH, options);
+	}
+
+	private String encodeUncached(byte[] buffer, EncodingOptions options) {
+
+		// Call the table-driven algorithm for each character directly.
+		UnicodeEncoder encoder = new UnicodeEncoder();
+		StringBuilder text = new StringBuilder();
+		int size = buffer.length;
+		for (int offset = 0; offset < size; offset += ByteFormat.CHARACTER_WIDTH) {
+			encoder.encodeCharacter(text, buffer, offset, options);
+		}
+		return text.toString();
+	}
 }
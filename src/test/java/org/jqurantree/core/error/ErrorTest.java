@@ -27,6 +27,6 @@ public class ErrorTest {
 	@Test
 	public void testErrorCount() {
 
-		assertEquals(10, Errors.getErrorCount());
+		assertEquals(21, Errors.getErrorCount());
 	}
 }
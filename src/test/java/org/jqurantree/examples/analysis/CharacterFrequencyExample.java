@@ -20,9 +20,8 @@ package org.jqurantree.examples.analysis;
 
 import org.jqurantree.analysis.AnalysisTable;
 import org.jqurantree.analysis.SortOrder;
-import org.jqurantree.arabic.ArabicCharacter;
 import org.jqurantree.orthography.Document;
-import org.jqurantree.orthography.Token;
+import org.jqurantree.orthography.TokenCursor;
 
 /**
  * This example generates a frequency table, which shows the number of
@@ -38,10 +37,13 @@ public class CharacterFrequencyExample {
 		// Create a new analysis table.
 		AnalysisTable table = new AnalysisTable("Character");
 
-		// Add each character to the table.
-		for (Token token : Document.getTokens()) {
-			for (ArabicCharacter character : token) {
-				table.add(character.getType());
+		// Add each character to the table. A token cursor is used to read
+		// each token in place.
+		TokenCursor cursor = Document.getTokenCursor();
+		while (cursor.next()) {
+			int length = cursor.getLength();
+			for (int i = 0; i < length; i++) {
+				table.add(cursor.getCharacterType(i));
 			}
 		}
 
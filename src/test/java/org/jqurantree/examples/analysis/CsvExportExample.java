@@ -18,6 +18,8 @@
 
 package org.jqurantree.examples.analysis;
 
+import java.io.File;
+
 import org.jqurantree.analysis.AnalysisTable;
 import org.jqurantree.orthography.Chapter;
 import org.jqurantree.orthography.Document;
@@ -45,7 +47,9 @@ public class CsvExportExample {
 		// Write results to screen.
 		System.out.println(table);
 
-		// Export results to a CSV file.
-		table.writeFile("c:\\temp\\chapters.csv", ',');
+		// Export results to a CSV file in the temporary directory.
+		File file = new File(System.getProperty("java.io.tmpdir"),
+				"chapters.csv");
+		table.writeFile(file.getPath(), ',');
 	}
 }
@@ -54,8 +54,7 @@ public class TokenFrequencyExample {
 
 		// Group and display top 10 results.
 		AnalysisTable groupTable = table.group("Token");
-		groupTable.sort("Count", SortOrder.Descending);
-		System.out.println(groupTable.toString(10));
+		System.out.println(groupTable.top(10, "Count", SortOrder.Descending));
 	}
 
 	private static void topTokensWithoutDiacritics() {
@@ -70,7 +69,6 @@ public class TokenFrequencyExample {
 
 		// Group and display top 10 results.
 		AnalysisTable groupTable = table.group("Token");
-		groupTable.sort("Count", SortOrder.Descending);
-		System.out.println(groupTable.toString(10));
+		System.out.println(groupTable.top(10, "Count", SortOrder.Descending));
 	}
 }
@@ -21,6 +21,9 @@ package org.jqurantree.orthography;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.jqurantree.core.error.Errors;
 import org.jqurantree.core.error.JQuranTreeException;
 import org.junit.Test;
@@ -159,4 +162,107 @@ public class DocumentTest {
 			assertEquals(Errors.INVALID_CHAPTER_NUMBER, exception.getMessage());
 		}
 	}
+
+	@Test
+	public void testTokenOrdinals() {
+
+		// Test that ordinals are dense, and that locations and ordinals map to
+		// each other.
+		int ordinal = 0;
+		for (Token token : Document.getTokens()) {
+			Location location = token.getLocation();
+			assertEquals(ordinal, token.getOrdinal());
+			assertEquals(ordinal, Document.getTokenOrdinal(location));
+			assertEquals(location.toString(), Document.getTokenLocation(
+					ordinal).toString());
+			assertEquals(token.getVerse().getOrdinal(), Document
+					.getTokenVerseOrdinal(ordinal));
+			ordinal++;
+		}
+		assertEquals(Document.getTokenCount(), ordinal);
+
+		// Test the last token.
+		Token token = Document.getTokenByOrdinal(ordinal - 1);
+		assertEquals("(114:6:3)", token.getLocation().toString());
+	}
+
+	@Test
+	public void testVerseOrdinals() {
+
+		// Test that ordinals are dense, and that locations and ordinals map to
+		// each other.
+		int ordinal = 0;
+		for (Verse verse : Document.getVerses()) {
+			Location location = verse.getLocation();
+			assertEquals(ordinal, verse.getOrdinal());
+			assertEquals(ordinal, Document.getVerseOrdinal(location));
+			assertEquals(location.toString(), Document.getVerseLocation(
+					ordinal).toString());
+			ordinal++;
+		}
+		assertEquals(6236, ordinal);
+
+		// Test the first verse of chapter 2.
+		assertEquals(7, Document.getVerseOrdinal(new Location(2, 1)));
+		assertEquals(1, Document.getChapter(2).getOrdinal());
+	}
+
+	@Test
+	public void testGetInvalidOrdinal() {
+
+		// Get invalid ordinals.
+		int[] ordinals = { -1, Document.getTokenCount() };
+		for (int ordinal : ordinals) {
+			try {
+				Document.getTokenByOrdinal(ordinal);
+				fail();
+			} catch (JQuranTreeException exception) {
+				assertEquals(Errors.INVALID_ORDINAL, exception.getMessage());
+			}
+		}
+		try {
+			Document.getVerseLocation(6236);
+			fail();
+		} catch (JQuranTreeException exception) {
+			assertEquals(Errors.INVALID_ORDINAL, exception.getMessage());
+		}
+	}
+
+	@Test
+	public void testGetInvalidTokenOrdinal() {
+
+		// Get the ordinal of a token past the end of verse (1:1).
+		try {
+			Document.getTokenOrdinal(new Location(1, 1, 5));
+			fail();
+		} catch (JQuranTreeException exception) {
+			assertEquals(Errors.INVALID_TOKEN_NUMBER, exception.getMessage());
+		}
+	}
+
+	@Test
+	public void testTokenStream() {
+
+		// Test that a parallel stream visits each token once, in order.
+		List<Integer> ordinals = Document.tokenStream().parallel().map(
+				Token::getOrdinal).collect(Collectors.toList());
+		assertEquals(Document.getTokenCount(), ordinals.size());
+		for (int i = 0; i < ordinals.size(); i++) {
+			assertEquals(i, ordinals.get(i).intValue());
+		}
+
+		// Compare with a sequential stream.
+		assertEquals(Document.tokenStream().mapToInt(Token::getLength).sum(),
+				Document.tokenStream().parallel().mapToInt(Token::getLength)
+						.sum());
+	}
+
+	@Test
+	public void testVerseStream() {
+
+		// Count verses in parallel.
+		assertEquals(6236, Document.verseStream().parallel().count());
+		assertEquals(Document.getTokenCount(), Document.verseStream()
+				.parallel().mapToInt(Verse::getTokenCount).sum());
+	}
 }
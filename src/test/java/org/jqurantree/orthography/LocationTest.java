@@ -19,7 +19,15 @@
 package org.jqurantree.orthography;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
 import org.junit.Test;
 
 public class LocationTest {
@@ -52,4 +60,64 @@ public class LocationTest {
 		// Check string format.
 		assertEquals("(81:3:2)", location.toString());
 	}
+
+	@Test
+	public void testEncode() {
+
+		// Encode then decode a location.
+		int value = Location.encode(114, 6, 3);
+		assertEquals(114, Location.decodeChapterNumber(value));
+		assertEquals(6, Location.decodeVerseNumber(value));
+		assertEquals(3, Location.decodeTokenNumber(value));
+		assertEquals("(114:6:3)", Location.decode(value).toString());
+		assertEquals(value, new Location(114, 6, 3).encode());
+	}
+
+	@Test
+	public void testEquals() {
+
+		// Test value semantics.
+		Location location = new Location(2, 255, 1);
+		assertEquals(new Location(2, 255, 1), location);
+		assertEquals(new Location(2, 255, 1).hashCode(), location.hashCode());
+		assertFalse(location.equals(new Location(2, 255)));
+		assertFalse(location.equals(null));
+
+		// Test that locations may be used as hash keys.
+		Set<Location> locations = new HashSet<Location>();
+		for (Token token : Document.getTokens()) {
+			locations.add(token.getLocation());
+		}
+		assertEquals(Document.getTokenCount(), locations.size());
+		assertTrue(locations.contains(new Location(1, 1, 1)));
+	}
+
+	@Test
+	public void testCompare() {
+
+		// Test that document order is preserved.
+		Location previous = null;
+		for (Token token : Document.getTokens()) {
+			Location location = token.getLocation();
+			if (previous != null) {
+				assertTrue(previous.compareTo(location) < 0);
+				assertTrue(previous.encode() < location.encode());
+			}
+			previous = location;
+		}
+		assertEquals(0, new Location(18, 10).compareTo(new Location(18, 10)));
+		assertTrue(new Location(18).compareTo(new Location(18, 1)) < 0);
+	}
+
+	@Test
+	public void testInvalidVerseNumber() {
+
+		// Verse numbers must fit the encoding.
+		try {
+			new Location(1, 4096);
+			fail();
+		} catch (JQuranTreeException exception) {
+			assertEquals(Errors.INVALID_VERSE_NUMBER, exception.getMessage());
+		}
+	}
 }
@@ -0,0 +1,104 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.orthography;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.jqurantree.arabic.ByteFormat;
+import org.junit.Test;
+
+public class TokenCursorTest {
+
+	@Test
+	public void testDocumentCursor() {
+
+		// Test that the cursor matches the token iterator.
+		TokenCursor cursor = Document.getTokenCursor();
+		for (Token token : Document.getTokens()) {
+			assertTrue(cursor.next());
+			validateToken(token, cursor);
+		}
+
+		// Check that we have read all tokens.
+		assertFalse(cursor.next());
+		assertFalse(cursor.next());
+	}
+
+	@Test
+	public void testChapterCursor() {
+
+		// Count tokens in chapter 18.
+		Chapter chapter = Document.getChapter(18);
+		TokenCursor cursor = chapter.getTokenCursor();
+		int tokenCount = 0;
+		while (cursor.next()) {
+			assertEquals(18, cursor.getChapterNumber());
+			tokenCount++;
+		}
+		assertEquals(chapter.getTokenCount(), tokenCount);
+	}
+
+	@Test
+	public void testVerseCursor() {
+
+		// Test the cursor for verse (91:8).
+		Verse verse = Document.getVerse(91, 8);
+		TokenCursor cursor = verse.getTokenCursor();
+		for (Token token : verse.getTokens()) {
+			assertTrue(cursor.next());
+			assertSame(verse, cursor.getVerse());
+			validateToken(token, cursor);
+		}
+		assertFalse(cursor.next());
+	}
+
+	@Test
+	public void testReset() {
+
+		// Read every token, then reset.
+		TokenCursor cursor = Document.getVerse(1, 1).getTokenCursor();
+		while (cursor.next()) {
+		}
+		cursor.reset();
+		assertTrue(cursor.next());
+		assertEquals(1, cursor.getTokenNumber());
+		assertEquals("bisomi", cursor.getToken().toBuckwalter());
+	}
+
+	private void validateToken(Token token, TokenCursor cursor) {
+
+		// Validate the location.
+		assertEquals(token.getChapterNumber(), cursor.getChapterNumber());
+		assertEquals(token.getVerseNumber(), cursor.getVerseNumber());
+		assertEquals(token.getTokenNumber(), cursor.getTokenNumber());
+
+		// Validate the characters.
+		int length = token.getLength();
+		assertEquals(length, cursor.getLength());
+		assertEquals(token.getCharacter(0).isFatha(), ByteFormat.isFatha(
+				cursor.getBuffer(), cursor.getOffset()));
+		for (int i = 0; i < length; i++) {
+			assertEquals(token.getCharacterType(i), cursor.getCharacterType(i));
+		}
+		assertEquals(token.toBuckwalter(), cursor.getToken().toBuckwalter());
+	}
+}
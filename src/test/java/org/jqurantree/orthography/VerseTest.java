@@ -19,7 +19,10 @@
 package org.jqurantree.orthography;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
 import org.junit.Test;
 
 public class VerseTest {
@@ -65,4 +68,22 @@ public class VerseTest {
 		// We should have read 3 tokens.
 		assertEquals(3, tokenNumber);
 	}
+
+	@Test
+	public void testGetInvalidToken() {
+
+		// Initiate verse.
+		Verse verse = Document.getVerse(91, 8);
+
+		// Get invalid tokens either side of the verse.
+		for (int tokenNumber : new int[] { 0, 4 }) {
+			try {
+				verse.getToken(tokenNumber);
+				fail();
+			} catch (JQuranTreeException exception) {
+				assertEquals(Errors.INVALID_TOKEN_NUMBER, exception
+						.getMessage());
+			}
+		}
+	}
 }
@@ -0,0 +1,153 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.jqurantree.analysis.AnalysisTable;
+import org.jqurantree.arabic.encoding.EncodingType;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.Location;
+import org.jqurantree.orthography.Token;
+import org.junit.Test;
+
+public class PhraseSearchTest {
+
+	@Test
+	public void testFindPhrase() {
+
+		// Search for the bismillah.
+		PhraseSearch search = new PhraseSearch(EncodingType.Buckwalter);
+		search.findPhrase("bisomi {ll~ahi {lr~aHoma`ni {lr~aHiymi");
+		AnalysisTable table = search.getResults();
+
+		// Validate results.
+		assertEquals(2, table.getRowCount());
+		assertEquals("(1:1:1)", getLocation(table, 0));
+		assertEquals("(27:30:5)", getLocation(table, 1));
+		assertEquals(4, table.getInteger(0, "Length"));
+		assertEquals("bisomi {ll~ahi {lr~aHoma`ni {lr~aHiymi", table
+				.getString(0, "Phrase"));
+		validateResults(table, EncodingType.Buckwalter, false, 0, false,
+				"bisomi {ll~ahi {lr~aHoma`ni {lr~aHiymi");
+	}
+
+	@Test
+	public void testFindPhraseWithSlop() {
+
+		// Search with a slop of 2 and without diacritics.
+		PhraseSearch search = new PhraseSearch(EncodingType.Buckwalter,
+				SearchOptions.RemoveDiacritics);
+		search.setSlop(2);
+		search.findPhrase("{llh Elym");
+		search.findPhrase("qAl rb");
+		validateResults(search.getResults(), EncodingType.Buckwalter, true, 2,
+				false, "{llh Elym", "qAl rb");
+	}
+
+	@Test
+	public void testFindPhraseAcrossVerses() {
+
+		// The last token of (1:1) followed by the first token of (1:2).
+		PhraseSearch search = new PhraseSearch(EncodingType.Buckwalter);
+		search.findPhrase("{lr~aHiymi {loHamodu");
+		assertEquals(0, search.getResults().getRowCount());
+		search.setCrossVerses(true);
+		AnalysisTable table = search.getResults();
+		assertEquals("(1:1:4)", getLocation(table, 0));
+		validateResults(table, EncodingType.Buckwalter, false, 0, true,
+				"{lr~aHiymi {loHamodu");
+	}
+
+	@Test
+	public void testInvalidSlop() {
+		try {
+			new PhraseSearch(EncodingType.Buckwalter).setSlop(-1);
+			fail();
+		} catch (JQuranTreeException exception) {
+			assertEquals(Errors.INVALID_PHRASE_SLOP, exception.getMessage());
+		}
+	}
+
+	private String getLocation(AnalysisTable table, int rowIndex) {
+		return new Location(table.getInteger(rowIndex, 0), table.getInteger(
+				rowIndex, 1), table.getInteger(rowIndex, 2)).toString();
+	}
+
+	private void validateResults(AnalysisTable table,
+			EncodingType encodingType, boolean isRemoveDiacritics, int slop,
+			boolean isCrossVerses, String... phrases) {
+
+		// Encode all tokens.
+		int tokenCount = Document.getTokenCount();
+		String[] texts = new String[tokenCount];
+		int[] verses = new int[tokenCount];
+		int index = 0;
+		for (Token token : Document.getTokens()) {
+			texts[index] = isRemoveDiacritics ? token.removeDiacritics()
+					.toString(encodingType) : token.toString(encodingType);
+			verses[index++] = Document.getVerseOrdinal(token.getLocation());
+		}
+
+		// Find matches by scanning forward from each token.
+		int rowIndex = 0;
+		for (int start = 0; start < tokenCount; start++) {
+			int length = 0;
+			for (String phrase : phrases) {
+				String[] tokens = phrase.split(" ");
+				int end = start;
+				if (!texts[start].equals(tokens[0])) {
+					continue;
+				}
+				for (int i = 1; i < tokens.length && end >= 0; i++) {
+					int next = end + 1;
+					while (next < tokenCount && !texts[next].equals(tokens[i])) {
+						next++;
+					}
+					end = next < tokenCount ? next : -1;
+				}
+				if (end >= 0 && end - start - (tokens.length - 1) <= slop
+						&& (isCrossVerses || verses[start] == verses[end])) {
+					length = Math.max(length, end - start + 1);
+				}
+			}
+
+			// Validate the match.
+			if (length > 0) {
+				assertEquals(Document.getTokenLocation(start).toString(),
+						getLocation(table, rowIndex));
+				assertEquals(length, table.getInteger(rowIndex, "Length"));
+				rowIndex++;
+				while (rowIndex < table.getRowCount()
+						&& getLocation(table, rowIndex).equals(
+								getLocation(table, rowIndex - 1))) {
+					rowIndex++;
+				}
+			}
+		}
+
+		// Check that all rows were matched.
+		assertTrue(rowIndex > 0);
+		assertEquals(rowIndex, table.getRowCount());
+	}
+}
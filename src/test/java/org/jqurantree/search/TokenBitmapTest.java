@@ -0,0 +1,147 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.jqurantree.arabic.encoding.EncodingType;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.Location;
+import org.jqurantree.orthography.Token;
+import org.junit.Test;
+
+public class TokenBitmapTest {
+
+	@Test
+	public void testBooleanOperations() {
+
+		// Compare to bit sets, for sparse and dense chunks.
+		Random random = new Random(1);
+		int tokenCount = Document.getTokenCount();
+		for (double density : new double[] { 0.001, 0.05, 0.5 }) {
+			BitSet bits1 = getRandomBits(random, tokenCount, density);
+			BitSet bits2 = getRandomBits(random, tokenCount, density * 2);
+			TokenBitmap bitmap1 = TokenBitmap.fromBitSet(bits1);
+			TokenBitmap bitmap2 = TokenBitmap.fromBitSet(bits2);
+
+			// And.
+			BitSet expected = (BitSet) bits1.clone();
+			expected.and(bits2);
+			validateBitmap(expected, bitmap1.and(bitmap2));
+
+			// Or.
+			expected = (BitSet) bits1.clone();
+			expected.or(bits2);
+			validateBitmap(expected, bitmap1.or(bitmap2));
+
+			// And not.
+			expected = (BitSet) bits1.clone();
+			expected.andNot(bits2);
+			validateBitmap(expected, bitmap1.andNot(bitmap2));
+
+			// Not.
+			expected = (BitSet) bits1.clone();
+			expected.flip(0, tokenCount);
+			validateBitmap(expected, bitmap1.not());
+		}
+	}
+
+	@Test
+	public void testChapterRange() {
+
+		// Count tokens in chapters 2 to 9.
+		TokenBitmap bitmap = TokenBitmap.getChapterRange(2, 9);
+		int tokenCount = 0;
+		for (int i = 2; i <= 9; i++) {
+			tokenCount += Document.getChapter(i).getTokenCount();
+		}
+		assertEquals(tokenCount, bitmap.getCardinality());
+		assertTrue(bitmap.contains(Document.getTokenOrdinal(new Location(2, 1,
+				1))));
+		assertFalse(bitmap.contains(Document.getTokenOrdinal(new Location(10,
+				1, 1))));
+		assertEquals(Document.getTokenCount(), TokenBitmap.getAll()
+				.getCardinality());
+	}
+
+	@Test
+	public void testVerseRange() {
+
+		// Tokens in verses (2:255) to (2:257).
+		TokenBitmap bitmap = TokenBitmap.getVerseRange(new Location(2, 255),
+				new Location(2, 257));
+		int tokenCount = 0;
+		for (int i = 255; i <= 257; i++) {
+			tokenCount += Document.getVerse(2, i).getTokenCount();
+		}
+		assertEquals(tokenCount, bitmap.getCardinality());
+		assertEquals(Document.getTokenOrdinal(new Location(2, 255, 1)), bitmap
+				.toArray()[0]);
+	}
+
+	@Test
+	public void testQuery() {
+
+		// Tokens containing "ll~ah" in chapters 2 to 9, but not "{ll~ahi".
+		TokenSearch search1 = new TokenSearch(EncodingType.Buckwalter);
+		search1.findSubstring("ll~ah");
+		TokenSearch search2 = new TokenSearch(EncodingType.Buckwalter);
+		search2.findToken("{ll~ahi");
+		TokenBitmap bitmap = search1.getBitmap().and(
+				TokenBitmap.getChapterRange(2, 9)).andNot(search2.getBitmap());
+
+		// Compare to a scan of each token.
+		int count = 0;
+		for (Token token : Document.getTokens()) {
+			String text = token.toBuckwalter();
+			if (token.getChapterNumber() >= 2 && token.getChapterNumber() <= 9
+					&& text.contains("ll~ah") && !text.equals("{ll~ahi")) {
+				assertTrue(bitmap.contains(Document.getTokenOrdinal(token
+						.getLocation())));
+				count++;
+			}
+		}
+		assertTrue(count > 0);
+		assertEquals(count, bitmap.getCardinality());
+		assertEquals(count, bitmap.toTable(EncodingType.Buckwalter)
+				.getRowCount());
+	}
+
+	private BitSet getRandomBits(Random random, int size, double density) {
+		BitSet bits = new BitSet(size);
+		for (int i = 0; i < size; i++) {
+			if (random.nextDouble() < density) {
+				bits.set(i);
+			}
+		}
+		return bits;
+	}
+
+	private void validateBitmap(BitSet expected, TokenBitmap bitmap) {
+		assertEquals(expected.cardinality(), bitmap.getCardinality());
+		assertArrayEquals(expected.stream().toArray(), bitmap.toArray());
+		assertEquals(expected.isEmpty(), bitmap.isEmpty());
+	}
+}
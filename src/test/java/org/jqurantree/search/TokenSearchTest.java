@@ -0,0 +1,450 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.jqurantree.analysis.AnalysisTable;
+import org.jqurantree.arabic.ArabicText;
+import org.jqurantree.arabic.encoding.EncodingType;
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
+import org.jqurantree.orthography.Document;
+import org.jqurantree.orthography.Location;
+import org.jqurantree.orthography.Token;
+import org.jqurantree.orthography.Verse;
+import org.junit.Test;
+
+public class TokenSearchTest {
+
+	@Test
+	public void testFindToken() {
+
+		// Search for exact tokens.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		search.findToken("$amosFA");
+		search.findToken("{ll~ahi");
+		search.findToken("notfound");
+		validateResults(search.getResults(), EncodingType.Buckwalter, null,
+				new String[] { "$amosFA", "{ll~ahi", "notfound" },
+				new String[0]);
+	}
+
+	@Test
+	public void testFindTokenWithoutDiacritics() {
+
+		// Search for exact tokens, ignoring diacritics.
+		TokenSearch search = new TokenSearch(EncodingType.Unicode,
+				SearchOptions.RemoveDiacritics);
+		search.findToken("\u0627\u0644\u0644\u0647");
+		validateResults(search.getResults(), EncodingType.Unicode,
+				SearchOptions.RemoveDiacritics,
+				new String[] { "\u0627\u0644\u0644\u0647" }, new String[0]);
+	}
+
+	@Test
+	public void testFindSubstring() {
+
+		// Search for substrings and tokens.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		search.findSubstring("qamar");
+		search.findSubstring("$~amos");
+		search.findToken("{lo>ahil~api");
+		validateResults(search.getResults(), EncodingType.Buckwalter, null,
+				new String[] { "{lo>ahil~api" }, new String[] { "qamar",
+						"$~amos" });
+	}
+
+	@Test
+	public void testFindSubstringWithoutDiacritics() {
+
+		// Search for substrings, ignoring diacritics.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter,
+				SearchOptions.RemoveDiacritics);
+		search.findSubstring("qmr");
+		search.findSubstring("ktb");
+		validateResults(search.getResults(), EncodingType.Buckwalter,
+				SearchOptions.RemoveDiacritics, new String[0], new String[] {
+						"qmr", "ktb" });
+	}
+
+	@Test
+	public void testFindArabicText() {
+
+		// Search for Arabic text.
+		ArabicText token = ArabicText.fromBuckwalter("$amosFA");
+		ArabicText substring = ArabicText.fromBuckwalter("qamar");
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		search.findToken(token);
+		search.findSubstring(substring, SearchOptions.RemoveDiacritics);
+		AnalysisTable table = search.getResults();
+
+		// Compare to the character data of each token.
+		int rowIndex = 0;
+		for (Token result : Document.getTokens()) {
+			if (Arrays.equals(token.toByteArray(), result.toByteArray())
+					|| result.removeDiacritics().toBuckwalter().contains("qmr")) {
+				assertEquals(result.getLocation().toString(), new Location(
+						table.getInteger(rowIndex, 0), table.getInteger(
+								rowIndex, 1), table.getInteger(rowIndex, 2))
+						.toString());
+				rowIndex++;
+			}
+		}
+		assertTrue(rowIndex > 0);
+		assertEquals(rowIndex, table.getRowCount());
+	}
+
+	@Test
+	public void testFindManyArabicText() {
+
+		// Search for the tokens of verse (2:255) as substrings, and the tokens
+		// of chapter 112 as tokens without diacritics.
+		List<ArabicText> substrings = new ArrayList<ArabicText>();
+		List<ArabicText> tokens = new ArrayList<ArabicText>();
+		TokenSearch search = new TokenSearch(EncodingType.Unicode);
+		for (Token token : Document.getVerse(2, 255).getTokens()) {
+			substrings.add(token);
+			search.findSubstring(token);
+		}
+		for (Verse verse : Document.getChapter(112)) {
+			for (Token token : verse.getTokens()) {
+				tokens.add(token);
+				search.findToken(token, SearchOptions.RemoveDiacritics);
+			}
+		}
+		AnalysisTable table = search.getResults();
+
+		// Compare to the character data of each token.
+		int rowIndex = 0;
+		for (Token result : Document.getTokens()) {
+			String text = toHex(result);
+			String cleanText = toHex(result.removeDiacritics());
+			boolean isMatch = false;
+			for (ArabicText substring : substrings) {
+				isMatch |= text.contains(toHex(substring));
+			}
+			for (ArabicText token : tokens) {
+				isMatch |= cleanText.equals(toHex(token.removeDiacritics()));
+			}
+			if (isMatch) {
+				assertEquals(result.getTokenNumber(), table.getInteger(rowIndex,
+						2));
+				assertEquals(result.getVerseNumber(), table.getInteger(
+						rowIndex, 1));
+				rowIndex++;
+			}
+		}
+		assertEquals(rowIndex, table.getRowCount());
+	}
+
+	@Test
+	public void testFindWildcard() {
+
+		// Search for wildcard patterns.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		search.findWildcard("kt?b");
+		search.findWildcard("?lh?");
+		AnalysisTable table = search.getResults();
+
+		// Compare to a regular expression over each token without diacritics.
+		Pattern pattern = Pattern.compile(".*(kt.b|.lh.).*");
+		int rowIndex = 0;
+		for (Token token : Document.getTokens()) {
+			if (pattern.matcher(token.removeDiacritics().toBuckwalter())
+					.matches()) {
+				assertEquals(token.toBuckwalter(), table.getString(rowIndex, 3));
+				rowIndex++;
+			}
+		}
+		assertTrue(rowIndex > 0);
+		assertEquals(rowIndex, table.getRowCount());
+	}
+
+	@Test
+	public void testGramLength() {
+
+		// Each gram length should find the same tokens.
+		int[] pattern = NGramIndex.parse("{l?h", EncodingType.Buckwalter);
+		BitSet expected = new BitSet();
+		NGramIndex.getIndex(1).find(pattern, expected);
+		assertTrue(expected.cardinality() > 0);
+		for (int i = 2; i <= NGramIndex.MAX_GRAM_LENGTH; i++) {
+			BitSet results = new BitSet();
+			NGramIndex.getIndex(i).find(pattern, results);
+			assertEquals(expected, results);
+		}
+	}
+
+	@Test
+	public void testSetGramLength() {
+
+		// Search with bigrams, and compare to the default length.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		search.findWildcard("kt?b");
+		int count = search.getCount();
+		search.setGramLength(2);
+		assertEquals(count, search.getCount());
+
+		// Invalid lengths.
+		for (int gramLength : new int[] { 0, NGramIndex.MAX_GRAM_LENGTH + 1 }) {
+			try {
+				search.setGramLength(gramLength);
+				fail();
+			} catch (JQuranTreeException exception) {
+				assertEquals(Errors.INVALID_GRAM_LENGTH, exception.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testPagedResults() {
+
+		// Compare pages and counts to the full results.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		search.findSubstring("ll~ah");
+		AnalysisTable table = search.getResults();
+		assertEquals(table.getRowCount(), search.getCount());
+		assertTrue(table.getRowCount() > 100);
+		AnalysisTable page = search.getResults(50, 50);
+		assertEquals(50, page.getRowCount());
+		for (int i = 0; i < 50; i++) {
+			for (int j = 0; j < 4; j++) {
+				assertEquals(table.getValue(i + 50, j), page.getValue(i, j));
+			}
+		}
+
+		// A page past the end of the results is empty.
+		assertEquals(0, search.getResults(table.getRowCount(), 10)
+				.getRowCount());
+	}
+
+	@Test
+	public void testStreamResults() {
+
+		// Stream the first 10 matching tokens.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		search.findToken("{ll~ahi");
+		AnalysisTable table = search.getResults(0, 10);
+		Object[] tokens = search.tokenStream().limit(10).toArray();
+		assertEquals(10, tokens.length);
+		for (int i = 0; i < 10; i++) {
+			Token token = (Token) tokens[i];
+			assertEquals(table.getInteger(i, 0), token.getChapterNumber());
+			assertEquals(table.getInteger(i, 1), token.getVerseNumber());
+			assertEquals(table.getInteger(i, 2), token.getTokenNumber());
+		}
+		assertEquals(search.getCount(), search.ordinalStream().count());
+	}
+
+	@Test
+	public void testStreamArabicTextResults() {
+
+		// Streamed and paged matches agree with the full results.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		search.findSubstring(ArabicText.fromBuckwalter("qamar"));
+		search.findToken("{ll~ahi");
+		int[] ordinals = search.getBitmap().toArray();
+		assertTrue(ordinals.length > 30);
+		assertTrue(Arrays.equals(ordinals, search.ordinalStream().toArray()));
+		assertEquals(ordinals[0], search.ordinalStream().findFirst()
+				.getAsInt());
+		AnalysisTable table = search.getResults();
+		AnalysisTable page = search.getResults(20, 10);
+		assertEquals(10, page.getRowCount());
+		for (int i = 0; i < 10; i++) {
+			for (int j = 0; j < 4; j++) {
+				assertEquals(table.getValue(i + 20, j), page.getValue(i, j));
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidPage() {
+		try {
+			new TokenSearch(EncodingType.Buckwalter).getResults(-1, 10);
+			fail();
+		} catch (JQuranTreeException exception) {
+			assertEquals(Errors.INVALID_PAGE, exception.getMessage());
+		}
+	}
+
+	@Test
+	public void testFindPrefixAndSuffix() {
+
+		// Search for tokens starting with "wa{l", or ending with "hm" without
+		// diacritics.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		search.findPrefix("wa{l");
+		search.findSuffix("hm", SearchOptions.RemoveDiacritics);
+		AnalysisTable table = search.getResults();
+
+		// Compare to a scan of each token.
+		int rowIndex = 0;
+		for (Token token : Document.getTokens()) {
+			if (token.toBuckwalter().startsWith("wa{l")
+					|| token.removeDiacritics().toBuckwalter().endsWith("hm")) {
+				assertEquals(token.toBuckwalter(), table.getString(rowIndex, 3));
+				rowIndex++;
+			}
+		}
+		assertTrue(rowIndex > 0);
+		assertEquals(rowIndex, table.getRowCount());
+	}
+
+	@Test
+	public void testFindFuzzy() {
+
+		// Search for misspelled tokens, with and without diacritics.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		search.findFuzzy("{lqamaru", 1);
+		search.findFuzzy("ktAb", 1, SearchOptions.RemoveDiacritics);
+		AnalysisTable table = search.getResults();
+
+		// Compare to the edit distance of each token.
+		int rowIndex = 0;
+		for (Token token : Document.getTokens()) {
+			if (getEditDistance("{lqamaru", token.toBuckwalter()) <= 1
+					|| getEditDistance("ktAb", token.removeDiacritics()
+							.toBuckwalter()) <= 1) {
+				assertEquals(token.toBuckwalter(), table.getString(rowIndex, 3));
+				rowIndex++;
+			}
+		}
+		assertTrue(rowIndex > 0);
+		assertEquals(rowIndex, table.getRowCount());
+	}
+
+	@Test
+	public void testInvalidEditDistance() {
+		try {
+			new TokenSearch(EncodingType.Buckwalter).findFuzzy("ktAb", -1);
+			fail();
+		} catch (JQuranTreeException exception) {
+			assertEquals(Errors.INVALID_EDIT_DISTANCE, exception.getMessage());
+		}
+	}
+
+	@Test
+	public void testSubstringCount() {
+
+		// Compare occurrence counts to a scan of each token.
+		TokenSearch search = new TokenSearch(EncodingType.Buckwalter);
+		for (String substring : new String[] { "qamar", "~", "{ll~ahi", "A",
+				"xyz" }) {
+			int count = 0;
+			for (Token token : Document.getTokens()) {
+				String text = token.toBuckwalter();
+				for (int i = text.indexOf(substring); i >= 0; i = text
+						.indexOf(substring, i + 1)) {
+					count++;
+				}
+			}
+			assertEquals(count, search.getSubstringCount(substring));
+		}
+
+		// An empty substring is contained by every token.
+		assertEquals(Document.getTokenCount(), search.getSubstringCount(""));
+
+		// Without diacritics.
+		assertTrue(search.getSubstringCount("qmr",
+				SearchOptions.RemoveDiacritics) >= search
+				.getSubstringCount("qamar"));
+	}
+
+	private int getEditDistance(String text1, String text2) {
+		int[] row = new int[text2.length() + 1];
+		for (int j = 0; j <= text2.length(); j++) {
+			row[j] = j;
+		}
+		for (int i = 1; i <= text1.length(); i++) {
+			int diagonal = row[0];
+			row[0] = i;
+			for (int j = 1; j <= text2.length(); j++) {
+				int previous = row[j];
+				int cost = text1.charAt(i - 1) == text2.charAt(j - 1) ? 0 : 1;
+				row[j] = Math.min(Math.min(row[j] + 1, row[j - 1] + 1),
+						diagonal + cost);
+				diagonal = previous;
+			}
+		}
+		return row[text2.length()];
+	}
+
+	private String toHex(ArabicText text) {
+
+		// Each character is formatted as 6 hex digits, so that substrings are
+		// aligned to whole characters.
+		StringBuilder hex = new StringBuilder();
+		for (byte value : text.toByteArray()) {
+			hex.append(String.format("%02x", value));
+		}
+		return hex.toString();
+	}
+
+	private void validateResults(AnalysisTable table,
+			EncodingType encodingType, SearchOptions options, String[] tokens,
+			String[] substrings) {
+
+		// Compare to a scan of each token in the Quranic text.
+		int rowIndex = 0;
+		for (Token token : Document.getTokens()) {
+			String text = options == SearchOptions.RemoveDiacritics ? token
+					.removeDiacritics().toString(encodingType) : token
+					.toString(encodingType);
+			if (isMatch(text, tokens, substrings)) {
+				assertEquals(token.getChapterNumber(), table.getInteger(
+						rowIndex, 0));
+				assertEquals(token.getVerseNumber(), table.getInteger(rowIndex,
+						1));
+				assertEquals(token.getTokenNumber(), table.getInteger(rowIndex,
+						2));
+				assertEquals(token.toString(encodingType), table.getString(
+						rowIndex, 3));
+				rowIndex++;
+			}
+		}
+
+		// Check that all rows were matched.
+		assertTrue(rowIndex > 0);
+		assertEquals(rowIndex, table.getRowCount());
+	}
+
+	private boolean isMatch(String text, String[] tokens, String[] substrings) {
+		for (String token : tokens) {
+			if (text.equals(token)) {
+				return true;
+			}
+		}
+		for (String substring : substrings) {
+			if (text.contains(substring)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,110 @@
+/* Copyright (C) Kais Dukes, 2009.
+ * 
+ * This file is part of JQuranTree.
+ * 
+ * JQuranTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * JQuranTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with JQuranTree. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jqurantree.tanzil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+
+import org.jqurantree.core.error.Errors;
+import org.jqurantree.core.error.JQuranTreeException;
+import org.jqurantree.orthography.Chapter;
+import org.jqurantree.orthography.Token;
+import org.jqurantree.orthography.Verse;
+import org.junit.Test;
+
+public class TanzilSnapshotTest {
+
+	@Test
+	public void testRoundTrip() {
+
+		// Read the XML, then write and read a snapshot.
+		Chapter[] expectedChapters = new TanzilReader().readXml();
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		new TanzilSnapshotWriter().write(expectedChapters, stream);
+		Chapter[] actualChapters = new TanzilSnapshotReader()
+				.read(new ByteArrayInputStream(stream.toByteArray()));
+
+		// Validate chapters.
+		assertEquals(expectedChapters.length, actualChapters.length);
+		for (int i = 0; i < expectedChapters.length; i++) {
+			Chapter expectedChapter = expectedChapters[i];
+			Chapter actualChapter = actualChapters[i];
+			assertEquals(expectedChapter.getChapterNumber(), actualChapter
+					.getChapterNumber());
+			assertEquals(expectedChapter.getName().toBuckwalter(),
+					actualChapter.getName().toBuckwalter());
+			assertEquals(String.valueOf(expectedChapter.getBismillah()),
+					String.valueOf(actualChapter.getBismillah()));
+			assertEquals(expectedChapter.getVerseCount(), actualChapter
+					.getVerseCount());
+
+			// Validate verses.
+			Iterator<Verse> verses = actualChapter.iterator();
+			for (Verse expectedVerse : expectedChapter) {
+				validateVerse(expectedVerse, verses.next());
+			}
+		}
+	}
+
+	@Test
+	public void testReadOtherVersion() {
+
+		// A snapshot with an unknown version is ignored.
+		byte[] buffer = { 0x4A, 0x51, 0x54, 0x53, 0, 0, 0, 0 };
+		assertNull(new TanzilSnapshotReader().read(new ByteArrayInputStream(
+				buffer)));
+	}
+
+	@Test
+	public void testReadTruncatedSnapshot() {
+
+		// Test that reading a truncated snapshot is correctly handled.
+		byte[] buffer = { 0x4A, 0x51, 0x54, 0x53, 0, 0, 0,
+				TanzilSnapshotReader.SNAPSHOT_VERSION, 0, 0 };
+		try {
+			new TanzilSnapshotReader().read(new ByteArrayInputStream(buffer));
+			fail();
+		} catch (JQuranTreeException exception) {
+			assertEquals(Errors.INVALID_SNAPSHOT, exception.getMessage());
+		}
+	}
+
+	private void validateVerse(Verse expectedVerse, Verse actualVerse) {
+
+		// Validate the verse.
+		assertEquals(expectedVerse.toString(), actualVerse.toString());
+		assertEquals(expectedVerse.getTokenCount(), actualVerse
+				.getTokenCount());
+
+		// Validate tokens.
+		Iterator<Token> tokens = actualVerse.getTokens().iterator();
+		for (Token expectedToken : expectedVerse.getTokens()) {
+			Token actualToken = tokens.next();
+			assertEquals(expectedToken.getLocation().toString(), actualToken
+					.getLocation().toString());
+			assertEquals(expectedToken.toBuckwalter(), actualToken
+					.toBuckwalter());
+		}
+	}
+}